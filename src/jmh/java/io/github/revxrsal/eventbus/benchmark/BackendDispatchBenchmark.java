@@ -0,0 +1,40 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares synchronous dispatch through the listeners created by each
+ * backend, invoked by the plain loop over the subscriptions of an event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BackendDispatchBenchmark {
+
+    @Param({"asm", "methodHandles", "lambdaMetafactory", "reflection"})
+    public String backend;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private EventBus bus;
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+
+    @Setup
+    public void setUp() {
+        bus = Backends.builder(backend).build();
+        for (int i = 0; i < listeners; i++)
+            bus.register(new BenchmarkListener());
+    }
+
+    @Benchmark
+    public BenchmarkEvent dispatch() {
+        return bus.dispatch(event);
+    }
+}
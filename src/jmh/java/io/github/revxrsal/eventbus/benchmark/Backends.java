@@ -0,0 +1,29 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates event bus builders from the backend names used as benchmark
+ * parameters.
+ */
+final class Backends {
+
+    private Backends() {
+    }
+
+    public static @NotNull EventBusBuilder builder(@NotNull String backend) {
+        switch (backend) {
+            case "asm":
+                return EventBusBuilder.asm();
+            case "methodHandles":
+                return EventBusBuilder.methodHandles();
+            case "lambdaMetafactory":
+                return EventBusBuilder.lambdaMetafactory();
+            case "reflection":
+                return EventBusBuilder.reflection();
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+    }
+}
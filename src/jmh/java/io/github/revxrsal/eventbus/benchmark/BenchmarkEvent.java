@@ -0,0 +1,17 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+/**
+ * A plain event that carries a value for listeners to consume.
+ */
+public final class BenchmarkEvent {
+
+    private final int value;
+
+    public BenchmarkEvent(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.SubscribeEvent;
+
+/**
+ * A listener that sums the values of the events it receives, so that
+ * dispatch cannot be eliminated.
+ */
+public final class BenchmarkListener {
+
+    public long sum;
+
+    @SubscribeEvent
+    public void onEvent(BenchmarkEvent event) {
+        sum += event.getValue();
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to dispatch a burst of events to a listener that blocks
+ * for a millisecond, as it would on I/O, with a fixed thread pool and with
+ * virtual threads.
+ * <p>
+ * Run on Java 21 or later, as the virtual thread mode falls back to the
+ * fixed pool on older JDKs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockingListenerBenchmark {
+
+    private static final int THREADS = 16;
+
+    @Param({"fixedThreadPool", "virtualThreads"})
+    public String executor;
+
+    @Param({"100", "1000"})
+    public int events;
+
+    private EventBus bus;
+    private ExecutorService pool;
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(THREADS);
+        EventBusBuilder builder = EventBusBuilder.methodHandles().executor(pool);
+        if (executor.equals("virtualThreads"))
+            builder.virtualThreads();
+        bus = builder.build();
+        bus.register(new BlockingListener());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.close();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void post() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[events];
+        for (int i = 0; i < events; i++)
+            futures[i] = bus.post(event);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    public static final class BlockingListener {
+
+        @SubscribeEvent
+        public void onEvent(BenchmarkEvent event) throws InterruptedException {
+            Thread.sleep(1);
+        }
+    }
+}
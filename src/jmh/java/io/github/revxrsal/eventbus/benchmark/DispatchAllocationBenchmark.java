@@ -0,0 +1,51 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocations of {@link EventBus#dispatch(Object)} with those of
+ * {@link EventBus#post(Object)} and {@link EventBus#submit(Object)} on a bus
+ * with the default, synchronous executor. Run with {@code -prof gc}, where
+ * dispatch should report 0 B/op, except with the reflection backend, whose
+ * listeners allocate the argument array of {@code Method.invoke} per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchAllocationBenchmark {
+
+    @Param({"asm", "methodHandles", "lambdaMetafactory", "reflection"})
+    public String backend;
+
+    private EventBus bus;
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+
+    @Setup
+    public void setUp() {
+        bus = Backends.builder(backend).build();
+        for (int i = 0; i < 10; i++)
+            bus.register(new BenchmarkListener());
+    }
+
+    @Benchmark
+    public BenchmarkEvent dispatch() {
+        return bus.dispatch(event);
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> post() {
+        return bus.post(event);
+    }
+
+    @Benchmark
+    public BenchmarkEvent submit() {
+        return bus.submit(event);
+    }
+}
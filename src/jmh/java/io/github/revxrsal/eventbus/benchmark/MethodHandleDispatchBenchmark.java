@@ -0,0 +1,44 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares synchronous dispatch of the method handles bus through the
+ * combined dispatch handle of an event class against the plain loop over
+ * its subscriptions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodHandleDispatchBenchmark {
+
+    @Param({"false", "true"})
+    public boolean combined;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private EventBus bus;
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+
+    @Setup
+    public void setUp() {
+        EventBusBuilder builder = EventBusBuilder.methodHandles();
+        if (combined) builder.generateDispatchers();
+        bus = builder.build();
+        for (int i = 0; i < listeners; i++)
+            bus.register(new BenchmarkListener());
+    }
+
+    @Benchmark
+    public BenchmarkEvent dispatch() {
+        return bus.dispatch(event);
+    }
+}
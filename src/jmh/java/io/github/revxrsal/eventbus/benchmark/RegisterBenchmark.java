@@ -0,0 +1,43 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registering 100k instances of one listener class, which reuses
+ * the invoker generated for the listener method.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class RegisterBenchmark {
+
+    private static final int INSTANCES = 100_000;
+
+    @Param({"asm", "methodHandles", "lambdaMetafactory", "reflection"})
+    public String backend;
+
+    private EventBus bus;
+    private BenchmarkListener[] listeners;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bus = Backends.builder(backend).build();
+        listeners = new BenchmarkListener[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++)
+            listeners[i] = new BenchmarkListener();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES)
+    public EventBus register() {
+        for (BenchmarkListener listener : listeners)
+            bus.register(listener);
+        return bus;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.WaitStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of posting events from one thread to a ring buffer
+ * and to a fixed thread pool with the same number of threads, until all the
+ * posted events have been dispatched.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RingBufferBenchmark {
+
+    private static final int EVENTS = 10_000;
+    private static final int THREADS = 2;
+
+    @Param({"ringBuffer", "fixedThreadPool"})
+    public String executor;
+
+    private EventBus bus;
+    private ExecutorService pool;
+    private final CountingListener listener = new CountingListener();
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (executor.equals("ringBuffer")) {
+            bus = EventBusBuilder.methodHandles().ringBuffer(1024, THREADS, WaitStrategy.YIELD).build();
+        } else {
+            pool = Executors.newFixedThreadPool(THREADS);
+            bus = EventBusBuilder.methodHandles().executor(pool).build();
+        }
+        bus.register(listener);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.close();
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long post() {
+        for (int i = 0; i < EVENTS; i++)
+            bus.post(event);
+        expected += EVENTS;
+        while (listener.received.get() < expected)
+            Thread.onSpinWait();
+        return expected;
+    }
+
+    public static final class CountingListener {
+
+        private final AtomicLong received = new AtomicLong();
+
+        @SubscribeEvent
+        public void onEvent(BenchmarkEvent event) {
+            received.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.revxrsal.eventbus.benchmark;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures unregistering listener instances of one event type in
+ * registration order, with a dispatch before the first unregister, so that
+ * the event class has been resolved. The cost per unregister should not
+ * grow with the number of registered instances.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class UnregisterBenchmark {
+
+    @Param({"10000", "80000"})
+    public int instances;
+
+    private EventBus bus;
+    private BenchmarkListener[] listeners;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bus = EventBusBuilder.methodHandles().build();
+        listeners = new BenchmarkListener[instances];
+        for (int i = 0; i < instances; i++) {
+            listeners[i] = new BenchmarkListener();
+            bus.register(listeners[i]);
+        }
+        bus.dispatch(new BenchmarkEvent(1));
+    }
+
+    @Benchmark
+    public EventBus unregister() {
+        for (BenchmarkListener listener : listeners)
+            bus.unregister(listener);
+        return bus;
+    }
+}
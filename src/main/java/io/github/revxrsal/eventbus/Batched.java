@@ -0,0 +1,58 @@
+package io.github.revxrsal.eventbus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation to mark subscribed methods that receive events in batches.
+ * The method must accept either a {@link java.util.List} of the event type
+ * (for example, <code>List&lt;MyEvent&gt;</code>) or an array of it.
+ * <p>
+ * The event bus buffers the events of such listeners, and flushes the
+ * buffer once it reaches {@link #size()} events, or once {@link #window()}
+ * milliseconds have passed since the first buffered event. Batches of one
+ * listener are delivered one at a time, in the order they were flushed.
+ * <p>
+ * Unregistering the listener, or closing the event bus, delivers the events
+ * that are still buffered right away.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *     &#64;Batched(size = 500, window = 100)
+ *     &#64;SubscribeEvent
+ *     public void onPlayerMoves(List&lt;PlayerMoveEvent&gt; events) {
+ *         database.saveAll(events);
+ *     }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+    /**
+     * The maximum number of events in a batch. Once the buffer reaches this
+     * size, the batch is delivered on the posting thread, or by the thread
+     * that is still delivering an earlier batch of the listener.
+     *
+     * @return The maximum batch size
+     */
+    int size() default 100;
+
+    /**
+     * The time window of a batch in milliseconds, after which the buffered
+     * events are delivered even if the batch is not full. Such batches are
+     * delivered on the {@link EventBusBuilder#asyncExecutor(java.util.concurrent.Executor) async executor}
+     * of the event bus.
+     * <p>
+     * A non-positive window disables time-based flushing, so a partial batch
+     * is only delivered once it fills up, or once the listener is unregistered
+     * or the event bus is closed.
+     *
+     * @return The time window in milliseconds
+     */
+    long window() default 50;
+
+}
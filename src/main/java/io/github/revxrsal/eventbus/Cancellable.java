@@ -0,0 +1,27 @@
+package io.github.revxrsal.eventbus;
+
+/**
+ * Represents an event that can be cancelled by its listeners. Once an event
+ * is cancelled, the remaining listeners of the event are skipped, unless they
+ * are marked with {@link SubscribeEvent#receiveCancelled()}.
+ * <p>
+ * Interfaces generated by the event bus may extend this interface, in which
+ * case the cancelled state is generated as a mutable property.
+ */
+public interface Cancellable {
+
+    /**
+     * Tests whether is this event cancelled
+     *
+     * @return true if the event is cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Sets whether is this event cancelled
+     *
+     * @param cancelled Whether should the event be cancelled
+     */
+    void setCancelled(boolean cancelled);
+
+}
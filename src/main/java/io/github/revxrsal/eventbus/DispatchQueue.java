@@ -0,0 +1,42 @@
+package io.github.revxrsal.eventbus;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Represents a bounded queue of pending dispatches in front of the
+ * executor of an {@link EventBus}. When an event bus is built with
+ * {@link EventBusBuilder#boundedQueue(int, OverflowPolicy)}, its
+ * {@link EventBus#getExecutor()} returns a dispatch queue.
+ */
+public interface DispatchQueue extends Executor {
+
+    /**
+     * Returns the number of dispatches waiting in the queue
+     *
+     * @return The queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the maximum number of dispatches the queue can hold
+     *
+     * @return The queue capacity
+     */
+    int getCapacity();
+
+    /**
+     * Returns the number of dispatches that were dropped because the
+     * queue was full
+     *
+     * @return The dropped dispatches
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the overflow policy of this queue
+     *
+     * @return The overflow policy
+     */
+    OverflowPolicy getOverflowPolicy();
+
+}
@@ -2,9 +2,13 @@ package io.github.revxrsal.eventbus;
 
 import io.github.revxrsal.eventbus.gen.Index;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
 
 /**
  * Represents an event bus responsible for dispatching events to subscribed
@@ -13,14 +17,15 @@ import java.util.concurrent.Executor;
  * This class is thread-safe and can be used in multi-threaded
  * environments.
  * <p>
- * Create instances with {@link EventBusBuilder}.
+ * Create instances with {@link EventBusBuilder}. Closing an event bus stops
+ * the threads it started for dispatching.
  *
  * @see EventBusBuilder
  * @see PostResult
  * @see SubscribeEvent
  * @see Subscription
  */
-public interface EventBus {
+public interface EventBus extends AutoCloseable {
 
     /**
      * Publishes an event to all listeners. This is the same as calling
@@ -97,6 +102,65 @@ public interface EventBus {
      */
     CompletableFuture<Void> post(@NotNull Class<?> event, Object... parameters);
 
+    /**
+     * Publishes all the given events to their listeners in a single task
+     * of the executor, in the iteration order of the collection. The
+     * subscriptions are resolved once for every run of events of the
+     * same class.
+     *
+     * @param events Events to publish
+     * @return A future that completes once all the events have been
+     * posted to listeners.
+     * @see #postAll(Collection, boolean)
+     */
+    CompletableFuture<Void> postAll(@NotNull Collection<?> events);
+
+    /**
+     * Publishes all the given events to their listeners in a single task
+     * of the executor. The subscriptions are resolved once for every run
+     * of events of the same class.
+     * <p>
+     * In listener-major order, each listener receives the whole run of events
+     * before the next listener is invoked, which keeps the listener's code
+     * hot. Otherwise, each event is posted to all listeners before the next
+     * event.
+     *
+     * @param events        Events to publish
+     * @param listenerMajor Whether should each listener receive a run of
+     *                      events before the next listener.
+     * @return A future that completes once all the events have been
+     * posted to listeners.
+     */
+    CompletableFuture<Void> postAll(@NotNull Collection<?> events, boolean listenerMajor);
+
+    /**
+     * Publishes all the given events to their listeners in a single task
+     * of the executor.
+     *
+     * @param eventType The event type
+     * @param events    Events to publish
+     * @param <T>       The event type
+     * @return A future that completes once all the events have been
+     * posted to listeners.
+     * @see #postAll(Collection, boolean)
+     */
+    <T> CompletableFuture<Void> postAll(@NotNull Class<T> eventType, @NotNull T[] events);
+
+    /**
+     * Publishes all the given events to their listeners in a single task
+     * of the executor.
+     *
+     * @param eventType     The event type
+     * @param events        Events to publish
+     * @param listenerMajor Whether should each listener receive a run of
+     *                      events before the next listener.
+     * @param <T>           The event type
+     * @return A future that completes once all the events have been
+     * posted to listeners.
+     * @see #postAll(Collection, boolean)
+     */
+    <T> CompletableFuture<Void> postAll(@NotNull Class<T> eventType, @NotNull T[] events, boolean listenerMajor);
+
     /**
      * Publishes this event to all listeners, and returns the event instantly.
      *
@@ -130,6 +194,139 @@ public interface EventBus {
      */
     <T> T submit(@NotNull Class<T> eventType, Object... parameters);
 
+    /**
+     * Dispatches this event to all listeners on the current thread, bypassing
+     * the executor of this event bus, and returns the event once all listeners
+     * have been invoked.
+     * <p>
+     * Unlike {@link #post(Object)} and {@link #submit(Object)}, this does not
+     * allocate futures or tasks, which makes it suitable for hot synchronous
+     * dispatch loops.
+     *
+     * @param event Event to dispatch
+     * @param <T>   The event type
+     * @return The dispatched event
+     */
+    <T> T dispatch(@NotNull T event);
+
+    /**
+     * Posts this event, and keeps it as the sticky event of its class. Listeners
+     * registered later that listen to the event receive it right after they are
+     * registered, through the executor of this event bus.
+     * <p>
+     * Only the latest sticky event of each class is kept, in a slot that is
+     * replaced without locking. A listener that is registered while a sticky
+     * event is posted may receive both the previous and the new event. Once
+     * removed, sticky events do not keep their classes alive.
+     *
+     * @param event Event to post
+     * @return The event future
+     * @see #getStickyEvent(Class)
+     * @see #removeStickyEvent(Class)
+     */
+    CompletableFuture<Void> postSticky(@NotNull Object event);
+
+    /**
+     * Returns the latest sticky event of exactly the given class. Sticky
+     * events of subclasses are not returned.
+     *
+     * @param eventType The event type
+     * @param <T>       The event type
+     * @return The sticky event, or null if there is none
+     * @see #postSticky(Object)
+     */
+    <T> @Nullable T getStickyEvent(@NotNull Class<T> eventType);
+
+    /**
+     * Removes the latest sticky event of exactly the given class, so it is no
+     * longer delivered to listeners registered later. Sticky events of
+     * subclasses are left untouched.
+     *
+     * @param eventType The event type
+     * @param <T>       The event type
+     * @return The removed sticky event, or null if there was none
+     * @see #postSticky(Object)
+     */
+    <T> @Nullable T removeStickyEvent(@NotNull Class<T> eventType);
+
+    /**
+     * Posts this event only to the subscriptions of the given listener instance,
+     * as returned by {@link Subscription#getInstance()}, which listen to the
+     * event. Subscriptions are looked up through an index of listener instances,
+     * so other listeners of the event are never visited.
+     * <p>
+     * Filters and cancellation apply as in {@link #post(Object)}.
+     *
+     * @param listener The listener instance, compared by identity
+     * @param event    Event to post
+     * @return The event future
+     * @see #dispatchTo(Object, Object)
+     */
+    CompletableFuture<Void> postTo(@NotNull Object listener, @NotNull Object event);
+
+    /**
+     * Dispatches this event only to the subscriptions of the given listener
+     * instance on the current thread, bypassing the executor of this event bus.
+     *
+     * @param listener The listener instance, compared by identity
+     * @param event    Event to dispatch
+     * @param <T>      The event type
+     * @return The dispatched event
+     * @see #postTo(Object, Object)
+     */
+    <T> T dispatchTo(@NotNull Object listener, @NotNull T event);
+
+    /**
+     * Posts this event only to the subscriptions with the given
+     * {@link Subscription#getName() name} which listen to the event.
+     * Subscriptions are looked up through an index of names.
+     * <p>
+     * Filters and cancellation apply as in {@link #post(Object)}.
+     *
+     * @param subscriptionName The subscription name
+     * @param event            Event to post
+     * @return The event future
+     * @see #registerListener(String, Class, EventListener)
+     */
+    CompletableFuture<Void> postToNamed(@NotNull String subscriptionName, @NotNull Object event);
+
+    /**
+     * Dispatches this event only to the subscriptions with the given
+     * {@link Subscription#getName() name} on the current thread, bypassing
+     * the executor of this event bus.
+     *
+     * @param subscriptionName The subscription name
+     * @param event            Event to dispatch
+     * @param <T>              The event type
+     * @return The dispatched event
+     * @see #postToNamed(String, Object)
+     */
+    <T> T dispatchToNamed(@NotNull String subscriptionName, @NotNull T event);
+
+    /**
+     * Posts this event to all listeners, and gathers the responses of the
+     * {@link ResponseListener}s and subscribed methods that return a value
+     * with the given collector. Null responses are skipped.
+     * <p>
+     * Responses are collected in the order the listeners are invoked. When the
+     * bus is asynchronous, that is, built with any {@link EventBusBuilder#executor(java.util.concurrent.Executor) executor}
+     * other than the default one, or with
+     * {@link EventBusBuilder#parallelFanOut(java.util.concurrent.ForkJoinPool) parallel fan-out},
+     * listeners respond in parallel, and their responses are reduced in order
+     * with the {@link Collector#combiner() combiner} of the collector.
+     * <p>
+     * Listeners that throw are passed to the {@link EventExceptionHandler} and
+     * do not respond. Asynchronous and batched listeners are invoked, but do
+     * not respond either.
+     *
+     * @param event     Event to post
+     * @param collector Collector of the responses
+     * @param <R>       The result type
+     * @return A future of the collected result, which completes once all
+     * listeners have responded.
+     */
+    <R> CompletableFuture<R> ask(@NotNull Object event, @NotNull Collector<Object, ?, R> collector);
+
     /**
      * A utility method to automatically pre-generate all the required
      * stuff for invoking the event.
@@ -152,6 +349,9 @@ public interface EventBus {
      *     or any annotations marked by {@link EventBusBuilder#scanAnnotations(Class[])}</li>
      * </ol>
      * <p>
+     * Methods that are also annotated with {@link Batched} receive a list or an
+     * array of events, which are buffered by the event bus.
+     * <p>
      * Example:
      *
      * <pre>
@@ -162,10 +362,12 @@ public interface EventBus {
      *
      * @param listener Object to scan. Can be a {@link Class} if the elements
      *                 are static.
+     * @return The registration, which can be closed to unregister the
+     * created subscriptions.
      * @see #registerListener(Class, EventListener)
      * @see #unregister(Object)
      */
-    void register(@NotNull Object listener);
+    Registration register(@NotNull Object listener);
 
     /**
      * Registers the specified listener for the given event type
@@ -173,8 +375,116 @@ public interface EventBus {
      * @param eventType Event class to register for
      * @param listener  Listener to register
      * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener);
+
+    /**
+     * Registers the specified listener for the given event type. If the listener
+     * is asynchronous, it is invoked on the {@link EventBusBuilder#asyncExecutor(Executor) async executor}
+     * rather than on the thread dispatching the event.
+     *
+     * @param eventType Event class to register for
+     * @param listener  Listener to register
+     * @param async     Whether should the listener be invoked asynchronously
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     * @see SubscribeEvent#async()
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener, boolean async);
+
+    /**
+     * Registers the specified listener for the given event type, under the
+     * given subscription name. Events can then be targeted at the listener
+     * with {@link #postToNamed(String, Object)}.
+     *
+     * @param name      The subscription name
+     * @param eventType Event class to register for
+     * @param listener  Listener to register
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
      */
-    <T> void registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener);
+    <T> Registration registerListener(@NotNull String name, @NotNull Class<T> eventType, @NotNull EventListener<T> listener);
+
+    /**
+     * Registers the specified listener for the given event type, with the
+     * given priority. Listeners with higher priorities are invoked first.
+     *
+     * @param eventType Event class to register for
+     * @param listener  Listener to register
+     * @param priority  The listener priority
+     * @param async     Whether should the listener be invoked asynchronously
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     * @see SubscribeEvent#priority()
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener, int priority, boolean async);
+
+    /**
+     * Registers the specified listener for the given event type, which is
+     * only invoked for events accepted by the given filter.
+     *
+     * @param eventType Event class to register for
+     * @param filter    The filter of events to invoke the listener for
+     * @param listener  Listener to register
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     * @see SubscribeEvent#filter()
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull Predicate<? super T> filter, @NotNull EventListener<T> listener);
+
+    /**
+     * Registers the specified listener for the given event type, which is
+     * only invoked for events whose given property equals the given value.
+     * The property must have a getter annotated with {@link Index}, such as
+     * the properties of generated events.
+     * <p>
+     * The event bus keeps a hash index from property values to the listeners
+     * routed to them, so dispatching an event only looks up the listeners of
+     * its own value, however many values are routed. Routed listeners are
+     * invoked in priority order along with the other listeners of the event.
+     * <p>
+     * The value must be of the type the getter returns, or of its wrapper
+     * type for primitive getters. Integral values are converted to the
+     * numeric type of the getter when they fit it, so {@code 5} can be
+     * routed to a {@code long} property.
+     * <p>
+     * Example:
+     *
+     * <pre>
+     *     eventBus.registerListener(ArrowLaunchEvent.class, "launcher", "Hunter", event -> ...);
+     * </pre>
+     *
+     * @param eventType Event class to register for
+     * @param property  The name of the indexed property
+     * @param value     The property value to invoke the listener for
+     * @param listener  Listener to register
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     * @throws IllegalArgumentException if the property has no indexed getter,
+     *                                  or the value cannot be of its type
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull String property,
+                                      @NotNull Object value, @NotNull EventListener<T> listener);
+
+    /**
+     * Registers the specified listener for the given event type, with the
+     * given priority, which is only invoked for events whose given property
+     * equals the given value.
+     *
+     * @param eventType Event class to register for
+     * @param property  The name of the indexed property
+     * @param value     The property value to invoke the listener for
+     * @param listener  Listener to register
+     * @param priority  The listener priority
+     * @param <T>       The event type
+     * @return The registration, which can be closed to unregister the listener.
+     * @throws IllegalArgumentException if the property has no indexed getter,
+     *                                  or the value cannot be of its type
+     * @see #registerListener(Class, String, Object, EventListener)
+     */
+    <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull String property,
+                                      @NotNull Object value, @NotNull EventListener<T> listener, int priority);
 
     /**
      * Registers the specified {@link EventListener}. This will try to evaluate
@@ -186,19 +496,20 @@ public interface EventBus {
      *
      * @param listener Listener to register
      * @param <T>      The event type
+     * @return The registration, which can be closed to unregister the listener.
      */
-    <T> void registerListener(@NotNull EventListener<T> listener);
+    <T> Registration registerListener(@NotNull EventListener<T> listener);
 
     /**
      * Unregisters the specified listener instance, by unsubscribing all
-     * fields and methods.
+     * fields and methods. Instances are compared by identity.
      *
      * @param listener Listener instance to remove
      */
     void unregister(@NotNull Object listener);
 
     /**
-     * Unregisters the specified listener.
+     * Unregisters the specified listener. Listeners are compared by identity.
      *
      * @param listener Listener to unregister
      * @param <T>      The event type
@@ -220,4 +531,18 @@ public interface EventBus {
      */
     EventExceptionHandler getEventExceptionHandler();
 
+    /**
+     * Stops the threads that this event bus started for dispatching, which
+     * are the consumers of a {@link EventBusBuilder#ringBuffer(int, int, WaitStrategy) ring buffer}
+     * and the lanes of {@link EventBusBuilder#partitioned(int) partitioned} dispatch.
+     * Events that were already posted are still dispatched, while later posts
+     * complete exceptionally with a {@link java.util.concurrent.RejectedExecutionException}.
+     * Events still buffered by {@link Batched} listeners are delivered on the
+     * calling thread, and later events reach these listeners unbatched.
+     * <p>
+     * Executors passed to {@link EventBusBuilder#executor(Executor)} are left
+     * untouched. Calling this more than once has no effect.
+     */
+    @Override void close();
+
 }
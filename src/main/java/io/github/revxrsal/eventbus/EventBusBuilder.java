@@ -6,6 +6,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.Annotation;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * Builder class for {@link EventBus}, with more customizabitily for
@@ -21,6 +23,108 @@ public interface EventBusBuilder {
      */
     @NotNull EventBusBuilder executor(@NotNull Executor executor);
 
+    /**
+     * Sets the {@link Executor} for invoking asynchronous listeners, which are
+     * marked with {@link SubscribeEvent#async()} or registered with
+     * {@link EventBus#registerListener(Class, EventListener, boolean)}. Defaults
+     * to the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param executor Executor to set
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder asyncExecutor(@NotNull Executor executor);
+
+    /**
+     * Dispatches events asynchronously through a preallocated ring buffer that
+     * is drained by the given number of consumer threads. Publishers claim slots
+     * of the buffer through sequences instead of contending on a lock, and wait
+     * with the given strategy when the buffer is full.
+     * <p>
+     * This replaces any {@link Executor} set with {@link #executor(Executor)}, and
+     * disables {@link #virtualThreads()} and {@link #partitioned(int)}. The consumer
+     * threads are daemon threads that are started when the event bus is built,
+     * and stopped by {@link EventBus#close()}.
+     *
+     * @param capacity     The number of slots in the buffer. Must be a power of two
+     * @param consumers    The number of consumer threads
+     * @param waitStrategy How publishers and consumers wait
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder ringBuffer(int capacity, int consumers, @NotNull WaitStrategy waitStrategy);
+
+    /**
+     * Runs the listeners of every posted event on a new virtual thread, where
+     * the JDK supports virtual threads (Java 21+). Otherwise, events are
+     * dispatched by the {@link Executor} set with {@link #executor(Executor)}.
+     * <p>
+     * This suits listeners that block, for example on I/O, as blocked virtual
+     * threads do not hold on to platform threads. This disables
+     * {@link #ringBuffer(int, int, WaitStrategy)} and {@link #partitioned(int)}.
+     *
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder virtualThreads();
+
+    /**
+     * Dispatches events asynchronously on the given number of single-threaded
+     * lanes, routing every event by the hash of its partition key. Events with
+     * equal keys are therefore dispatched in the order they were posted, while
+     * events with different keys can be dispatched in parallel.
+     * <p>
+     * The partition key of an event is the value returned by {@link Partitioned#getPartitionKey()},
+     * or of the getter annotated with {@link io.github.revxrsal.eventbus.gen.PartitionKey}.
+     * Events without a key are spread across the lanes. Batches posted with
+     * {@link EventBus#postAll(java.util.Collection)} are dispatched on the
+     * lane of their first event.
+     * <p>
+     * This replaces any {@link Executor} set with {@link #executor(Executor)}, and
+     * disables {@link #ringBuffer(int, int, WaitStrategy)} and {@link #virtualThreads()}.
+     * The lane threads are daemon threads, which are stopped by {@link EventBus#close()}.
+     *
+     * @param lanes The number of lanes
+     * @return This builder instance
+     * @see #partitioned(int, Function)
+     */
+    @NotNull EventBusBuilder partitioned(int lanes);
+
+    /**
+     * Dispatches events asynchronously on the given number of single-threaded
+     * lanes, routing every event by the hash of the key returned by the given
+     * function. The function may return null for events that can be dispatched
+     * on any lane. If the function throws, the future returned for the event
+     * is failed with the exception.
+     *
+     * @param lanes       The number of lanes
+     * @param keyFunction The function that returns the partition key of an event
+     * @return This builder instance
+     * @see #partitioned(int)
+     */
+    @NotNull EventBusBuilder partitioned(int lanes, @NotNull Function<Object, ?> keyFunction);
+
+    /**
+     * Bounds the number of pending dispatches waiting for the executor of the
+     * event bus. Once the queue is full, posted events are handled according
+     * to the given policy.
+     * <p>
+     * The {@link EventBus#getExecutor() executor} of the built event bus is then a
+     * {@link DispatchQueue}, which exposes the queue depth and the number of
+     * dropped dispatches.
+     * <p>
+     * With {@link #partitioned(int)}, every lane is bounded separately by the
+     * given capacity.
+     * <p>
+     * The queue is drained by the executor of the event bus, which must run
+     * tasks asynchronously: with an executor that runs tasks on the calling
+     * thread, a publisher may dispatch the events queued by other publishers.
+     * Building a bounded event bus with the default, synchronous executor
+     * fails with an {@link IllegalStateException}.
+     *
+     * @param capacity The maximum number of pending dispatches
+     * @param policy   What to do with posted events when the queue is full
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder boundedQueue(int capacity, @NotNull OverflowPolicy policy);
+
     /**
      * Sets the exception handler for the event bus
      *
@@ -47,6 +151,49 @@ public interface EventBusBuilder {
      */
     @NotNull EventBusBuilder disableHierarchicalInvocation();
 
+    /**
+     * Compiles the dispatch of every dispatched event type, so that all the
+     * listeners of the event are invoked directly:
+     * <ul>
+     *     <li>With {@link #asm()}, a dispatcher class is generated per event type,
+     *     and regenerated whenever the subscriptions of the event type change.</li>
+     *     <li>With {@link #methodHandles()}, the listeners are combined into a method
+     *     handle tree per event type, which is rebuilt whenever the subscriptions of
+     *     the event type change.</li>
+     * </ul>
+     * This is best suited for buses whose listeners rarely change. It has no
+     * effect with {@link #reflection()}.
+     *
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder generateDispatchers();
+
+    /**
+     * Invokes the listeners of each posted event in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @return This builder instance
+     * @see #parallelFanOut(ForkJoinPool)
+     */
+    @NotNull EventBusBuilder parallelFanOut();
+
+    /**
+     * Invokes the listeners of each posted event in parallel on the given
+     * pool, by recursively splitting the listeners of the event across
+     * its workers. The futures returned by {@link EventBus#post(Object)} and
+     * {@link EventBus#publish(Object)} complete once all listeners finish.
+     * <p>
+     * This is useful for events that have many independent, slow
+     * listeners. Listeners of the same event may then run concurrently,
+     * so they must not depend on each other's order. Cancelling a
+     * {@link Cancellable} event only skips the listeners that have not
+     * started yet.
+     *
+     * @param pool The pool to invoke listeners on
+     * @return This builder instance
+     */
+    @NotNull EventBusBuilder parallelFanOut(@NotNull ForkJoinPool pool);
+
     /**
      * Constructs an immutable {@link EventBus} instance from this builder
      *
@@ -82,6 +229,21 @@ public interface EventBusBuilder {
         return SimpleEventBusBuilder.methodHandles();
     }
 
+    /**
+     * Creates a new {@link EventBusBuilder} that uses {@link java.lang.invoke.LambdaMetafactory}
+     * to turn listener methods into {@link EventListener}s. This performs close to
+     * {@link #asm()}, while the listener classes are spun and managed by the JDK
+     * rather than by custom class loaders.
+     *
+     * @return The new event bus builder
+     * @see EventBusBuilder#asm()
+     * @see EventBusBuilder#methodHandles()
+     * @see EventBusBuilder#reflection()
+     */
+    static @NotNull EventBusBuilder lambdaMetafactory() {
+        return SimpleEventBusBuilder.lambdaMetafactory();
+    }
+
     /**
      * Creates a new {@link EventBusBuilder} that uses the traditional reflection API
      * to invoke its subscriptions.
@@ -0,0 +1,42 @@
+package io.github.revxrsal.eventbus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Represents what a bounded dispatch queue does with a posted event
+ * when the queue is full.
+ *
+ * @see EventBusBuilder#boundedQueue(int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Blocks the publisher until there is room in the queue
+     */
+    BLOCK,
+
+    /**
+     * Discards the posted event. The future returned for the
+     * event is cancelled.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discards the oldest queued event to make room for the posted event.
+     * The future returned for the discarded event is cancelled.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Dispatches the posted event on the publisher's thread
+     */
+    CALLER_RUNS,
+
+    /**
+     * Fails the {@link CompletableFuture} returned for the posted event with a
+     * {@link java.util.concurrent.RejectedExecutionException}. Methods that do
+     * not return futures throw the exception instead.
+     */
+    FAIL
+
+}
@@ -0,0 +1,23 @@
+package io.github.revxrsal.eventbus;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents an event that carries a partition key. With
+ * {@link EventBusBuilder#partitioned(int)}, events with equal partition
+ * keys are dispatched in order, one after the other.
+ *
+ * @see io.github.revxrsal.eventbus.gen.PartitionKey
+ */
+public interface Partitioned {
+
+    /**
+     * Returns the partition key of this event. Keys are compared by
+     * their {@link Object#hashCode() hash code}.
+     *
+     * @return The partition key, or null if the event can be
+     * dispatched in any partition.
+     */
+    @Nullable Object getPartitionKey();
+
+}
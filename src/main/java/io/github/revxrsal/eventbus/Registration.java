@@ -0,0 +1,39 @@
+package io.github.revxrsal.eventbus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.List;
+
+/**
+ * Represents the subscriptions created by a single registration in an
+ * {@link EventBus}. Closing the registration unsubscribes exactly those
+ * subscriptions, without scanning the rest of the bus.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *     Registration registration = eventBus.register(new MyListener());
+ *     ...
+ *     registration.close();
+ * </pre>
+ *
+ * @see EventBus#register(Object)
+ * @see EventBus#registerListener(Class, EventListener)
+ */
+public interface Registration extends AutoCloseable {
+
+    /**
+     * Returns the subscriptions created by this registration
+     *
+     * @return The subscriptions
+     */
+    @NotNull @Unmodifiable List<Subscription> getSubscriptions();
+
+    /**
+     * Unsubscribes all the subscriptions of this registration. Calling
+     * this more than once has no effect.
+     */
+    @Override void close();
+
+}
@@ -0,0 +1,31 @@
+package io.github.revxrsal.eventbus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents an event listener that responds to events with a value, which
+ * is gathered by {@link EventBus#ask(Object, java.util.stream.Collector)}.
+ * <p>
+ * Subscribed methods that return a value are invoked as response listeners.
+ * When events are posted normally, the response is discarded.
+ *
+ * @param <T> The event to listen for
+ * @param <R> The response type
+ */
+@FunctionalInterface
+public interface ResponseListener<T, R> extends EventListener<T> {
+
+    /**
+     * Responds to the given event
+     *
+     * @param event Event to respond to
+     * @return The response, or null to not respond
+     * @throws Throwable Any throwable during the invocation
+     */
+    @Nullable R respond(@NotNull T event) throws Throwable;
+
+    @Override default void handle(@NotNull T event) throws Throwable {
+        respond(event);
+    }
+}
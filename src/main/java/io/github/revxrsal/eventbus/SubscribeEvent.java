@@ -4,6 +4,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.function.Predicate;
 
 /**
  * An annotation to mark methods that handle events, or fields of
@@ -14,4 +15,52 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD, ElementType.FIELD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SubscribeEvent {
+
+    /**
+     * Whether should the listener be invoked on the
+     * {@link EventBusBuilder#asyncExecutor(java.util.concurrent.Executor) async executor}
+     * of the event bus, rather than on the thread dispatching the event.
+     * <p>
+     * This is useful for slow listeners, such as ones that do I/O, so that
+     * the other listeners of the event do not wait for them. The futures
+     * returned when posting the event do not wait for asynchronous listeners.
+     *
+     * @return Whether is the listener asynchronous
+     */
+    boolean async() default false;
+
+    /**
+     * The priority of the listener. Listeners with higher priorities are
+     * invoked before the ones with lower priorities, and listeners with equal
+     * priorities are invoked in the order they were registered.
+     * <p>
+     * Listeners are sorted once when they are registered, so priorities do
+     * not slow down dispatching. Priorities are ignored by
+     * {@link EventBusBuilder#parallelFanOut()}.
+     *
+     * @return The listener priority
+     */
+    int priority() default 0;
+
+    /**
+     * Whether should the listener still be invoked for {@link Cancellable} events
+     * that were cancelled by listeners invoked before it. Otherwise, the listener
+     * is skipped for cancelled events.
+     *
+     * @return Whether does the listener receive cancelled events
+     */
+    boolean receiveCancelled() default false;
+
+    /**
+     * The filters of the listener, which must all accept an event for the
+     * listener to be invoked. Filters are created once per listener class,
+     * using their no-arg constructors.
+     * <p>
+     * Generated dispatchers evaluate filters before calling the listener, so
+     * rejected events never reach the listener.
+     *
+     * @return The filter classes
+     */
+    Class<? extends Predicate<?>>[] filter() default {};
+
 }
@@ -3,6 +3,8 @@ package io.github.revxrsal.eventbus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Predicate;
+
 /**
  * A class for collecting information about an event subscription
  */
@@ -13,12 +15,31 @@ public final class Subscription {
     private final Object instance;
     private final String name;
     private final Class<?> eventType;
+    private final int priority;
+    private final boolean receiveCancelled;
+    private final @Nullable Predicate filter; // keep ungenerified
 
     public Subscription(EventListener listener, Object instance, String name, Class<?> eventType) {
+        this(listener, instance, name, eventType, 0);
+    }
+
+    public Subscription(EventListener listener, Object instance, String name, Class<?> eventType, int priority) {
+        this(listener, instance, name, eventType, priority, false);
+    }
+
+    public Subscription(EventListener listener, Object instance, String name, Class<?> eventType, int priority, boolean receiveCancelled) {
+        this(listener, instance, name, eventType, priority, receiveCancelled, null);
+    }
+
+    public Subscription(EventListener listener, Object instance, String name, Class<?> eventType, int priority,
+                        boolean receiveCancelled, @Nullable Predicate<?> filter) {
         this.listener = listener;
         this.instance = instance;
         this.name = name;
         this.eventType = eventType;
+        this.priority = priority;
+        this.receiveCancelled = receiveCancelled;
+        this.filter = filter;
     }
 
     /**
@@ -75,6 +96,63 @@ public final class Subscription {
         return eventType;
     }
 
+    /**
+     * Returns the priority of this subscription. Subscriptions with higher
+     * priorities are invoked before the ones with lower priorities, and
+     * subscriptions with equal priorities are invoked in the order they
+     * were registered.
+     *
+     * @return The subscription priority
+     * @see SubscribeEvent#priority()
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns whether should this subscription be invoked for {@link Cancellable}
+     * events that have been cancelled.
+     *
+     * @return Whether does this subscription receive cancelled events
+     * @see SubscribeEvent#receiveCancelled()
+     */
+    public boolean receivesCancelled() {
+        return receiveCancelled;
+    }
+
+    /**
+     * Tests whether should this subscription be skipped for the given
+     * event, as the event has been cancelled.
+     *
+     * @param event Event to test
+     * @return True if the subscription should be skipped
+     */
+    public boolean isSkipped(@NotNull Object event) {
+        return !receiveCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    /**
+     * Returns the filter of this subscription, which must accept an
+     * event for the subscription to be invoked.
+     *
+     * @return The filter, or null if the subscription accepts all events
+     * @see SubscribeEvent#filter()
+     */
+    public @Nullable Predicate<?> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Tests whether does the filter of this subscription accept the given event
+     *
+     * @param event Event to test
+     * @return True if the subscription should be invoked for the event
+     */
+    @SuppressWarnings("unchecked")
+    public boolean accepts(@NotNull Object event) {
+        return filter == null || filter.test(event);
+    }
+
     @Override public String toString() {
         return "Subscription(" + name + ")";
     }
@@ -0,0 +1,51 @@
+package io.github.revxrsal.eventbus;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents how threads of a ring buffer wait when there is nothing
+ * to consume, or no free slot to publish to.
+ *
+ * @see EventBusBuilder#ringBuffer(int, int, WaitStrategy)
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins in a tight loop. This gives the lowest latency, but keeps
+     * a core busy for every waiting thread.
+     */
+    BUSY_SPIN {
+        @Override public void idle(int attempts) {
+        }
+    },
+
+    /**
+     * Spins for a while, then yields the thread to others.
+     */
+    YIELD {
+        @Override public void idle(int attempts) {
+            if (attempts > SPIN_TRIES) Thread.yield();
+        }
+    },
+
+    /**
+     * Spins for a while, then parks the thread for short periods. This gives
+     * the highest latency, but barely uses any CPU when idle.
+     */
+    PARK {
+        @Override public void idle(int attempts) {
+            if (attempts > SPIN_TRIES) LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Waits once.
+     *
+     * @param attempts The number of times the thread waited so far
+     */
+    public abstract void idle(int attempts);
+
+}
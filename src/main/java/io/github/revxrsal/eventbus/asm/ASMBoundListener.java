@@ -0,0 +1,36 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+
+/**
+ * An {@link EventListener} that invokes a listener method on an instance
+ * through its generated {@link ASMEventExecutor}, and retains the method
+ * so that dispatchers can call it directly.
+ */
+class ASMBoundListener<T> implements EventListener<T> {
+
+    final ASMEventExecutor executor;
+    private final Method method;
+    final Object instance;
+
+    public ASMBoundListener(ASMEventExecutor executor, Method method, Object instance) {
+        this.executor = executor;
+        this.method = method;
+        this.instance = instance;
+    }
+
+    @Override public final void handle(@NotNull T event) throws Throwable {
+        executor.invokeASMEvent(instance, event);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Object getInstance() {
+        return instance;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.ResponseListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+
+/**
+ * An {@link ASMBoundListener} of a listener method that returns a value,
+ * which responds with that value through its generated {@link ASMEventExecutor}.
+ */
+final class ASMBoundResponder<T> extends ASMBoundListener<T> implements ResponseListener<T, Object> {
+
+    public ASMBoundResponder(ASMEventExecutor executor, Method method, Object instance) {
+        super(executor, method, instance);
+    }
+
+    @Override public Object respond(@NotNull T event) throws Throwable {
+        return executor.respondASMEvent(instance, event);
+    }
+}
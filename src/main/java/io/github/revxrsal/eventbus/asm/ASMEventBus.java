@@ -3,25 +3,81 @@ package io.github.revxrsal.eventbus.asm;
 import io.github.revxrsal.eventbus.EventExceptionHandler;
 import io.github.revxrsal.eventbus.EventListener;
 import io.github.revxrsal.eventbus.PostResult;
+import io.github.revxrsal.eventbus.Subscription;
 import io.github.revxrsal.eventbus.base.BaseEventBus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public final class ASMEventBus extends BaseEventBus {
 
+    private final boolean generateDispatchers;
+    private final ClassValue<AtomicReference<DispatcherEntry>> dispatchers = new ClassValue<AtomicReference<DispatcherEntry>>() {
+        @Override protected AtomicReference<DispatcherEntry> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
     public ASMEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation) {
-        super(exceptionHandler, executor, annotations, hierarchicalInvocation);
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, false, null);
+    }
+
+    public ASMEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, boolean generateDispatchers, @Nullable ForkJoinPool fanOutPool) {
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, generateDispatchers, fanOutPool, ForkJoinPool.commonPool());
+    }
+
+    public ASMEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, boolean generateDispatchers, @Nullable ForkJoinPool fanOutPool, Executor asyncExecutor) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+        this.generateDispatchers = generateDispatchers;
     }
 
     @Override protected <T> EventListener<T> createEventListener(@NotNull Object listenerInstnace, @NotNull Method method) {
         return ASMEventListenerGen.generateListener(listenerInstnace, method);
     }
 
+    @Override protected Function<Object, EventListener<?>> createListenerFactory(@NotNull Method method) {
+        ASMEventExecutor executor = ASMEventListenerGen.generateExecutor(method);
+        return instance -> new ASMBoundListener<>(executor, method, instance);
+    }
+
+    @Override protected Function<Object, EventListener<?>> createResponseFactory(@NotNull Method method) {
+        ASMEventExecutor executor = ASMEventListenerGen.generateExecutor(method);
+        return instance -> new ASMBoundResponder<>(executor, method, instance);
+    }
+
+    @Override protected void invokeAll(@NotNull Object event) {
+        Class<?> eventClass = event.getClass();
+        if (!generateDispatchers || hasRoutes(eventClass)) {
+            super.invokeAll(event);
+            return;
+        }
+        Subscription[] subscriptions = getSubscriptions(eventClass);
+        AtomicReference<DispatcherEntry> slot = dispatchers.get(eventClass);
+        DispatcherEntry entry = slot.get();
+        if (entry == null || entry.subscriptions != subscriptions) {
+            ASMEventDispatcher dispatcher;
+            try {
+                dispatcher = ASMEventDispatcherGen.generateDispatcher(eventClass, subscriptions);
+            } catch (RuntimeException | LinkageError e) {
+                dispatcher = null; // dispatch with the plain loop until the subscriptions change
+            }
+            entry = new DispatcherEntry(subscriptions, dispatcher);
+            slot.set(entry);
+        }
+        if (entry.dispatcher == null)
+            super.invokeAll(event);
+        else
+            entry.dispatcher.dispatch(event, exceptionHandler);
+    }
+
     @Override public <T> CompletableFuture<PostResult<T>> publish(@NotNull Class<T> eventType, Object... parameters) {
         T event = EventGenerator.generate(eventType, parameters);
         return super.publish(event);
@@ -57,4 +113,20 @@ public final class ASMEventBus extends BaseEventBus {
         submit(event);
         return event;
     }
+
+    /**
+     * A generated dispatcher, along with the subscriptions it was
+     * generated for. The dispatcher is regenerated once the subscriptions
+     * of its event class change.
+     */
+    private static final class DispatcherEntry {
+
+        private final Subscription[] subscriptions;
+        private final ASMEventDispatcher dispatcher; // null if it could not be generated
+
+        public DispatcherEntry(Subscription[] subscriptions, ASMEventDispatcher dispatcher) {
+            this.subscriptions = subscriptions;
+            this.dispatcher = dispatcher;
+        }
+    }
 }
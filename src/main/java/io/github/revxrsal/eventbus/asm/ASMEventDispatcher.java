@@ -0,0 +1,10 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import org.jetbrains.annotations.NotNull;
+
+public interface ASMEventDispatcher {
+
+    void dispatch(@NotNull Object event, @NotNull EventExceptionHandler exceptionHandler);
+
+}
@@ -0,0 +1,284 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.Cancellable;
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Generates an {@link ASMEventDispatcher} for a fixed array of subscriptions,
+ * which calls every listener from its own call site. Listener methods
+ * are invoked directly on their instances, which are kept in final fields,
+ * so the JIT can inline the whole dispatch.
+ * <p>
+ * For {@link Cancellable} events, the cancelled state is checked before every
+ * listener that does not receive cancelled events. Subscription filters are
+ * kept in final fields too, and are evaluated right before their listeners.
+ * <p>
+ * The listeners are invoked from a sequence of dispatch methods with up to
+ * {@value #CHUNK_SIZE} listeners each. No dispatcher is generated for more
+ * than {@value #MAX_LISTENERS} listeners.
+ * <p>
+ * Dispatchers are defined as hidden classes where supported, so that
+ * replaced dispatchers can be unloaded.
+ */
+final class ASMEventDispatcherGen implements Opcodes {
+
+    private static final String[] INTERFACES = new String[]{Type.getInternalName(ASMEventDispatcher.class)};
+    private static final Type SUBSCRIPTION_ARRAY = Type.getType(Subscription[].class);
+    private static final Type LISTENER_TYPE = Type.getType(EventListener.class);
+    private static final Type HANDLER_TYPE = Type.getType(EventExceptionHandler.class);
+    private static final Type THROWABLE_TYPE = Type.getType(Throwable.class);
+    private static final Type CANCELLABLE_TYPE = Type.getType(Cancellable.class);
+    private static final Method IS_CANCELLED = Method.getMethod("boolean isCancelled()");
+    private static final Type PREDICATE_TYPE = Type.getType(Predicate.class);
+    private static final Method TEST = Method.getMethod("boolean test(Object)");
+    private static final Method GET_FILTER = Method.getMethod(Predicate.class.getName() + " getFilter()");
+    private static final Method HANDLE = Method.getMethod("void handle(Object)");
+    private static final Method HANDLE_EXCEPTION = Method.getMethod("void handleException("
+            + Subscription.class.getName() + ", Object, Throwable)");
+    private static final Class<?>[] LIBRARY_TYPES = {ASMEventDispatcher.class, EventListener.class, EventExceptionHandler.class, Subscription.class, Cancellable.class};
+
+    /**
+     * The number of listeners invoked by each generated dispatch method, which
+     * keeps the methods small enough to be compiled by the JIT.
+     */
+    private static final int CHUNK_SIZE = 32;
+
+    /**
+     * The maximum number of listeners to generate a dispatcher for. Beyond
+     * this, the generated class would approach the limits of the class file
+     * format, while direct calls gain next to nothing over the plain loop.
+     */
+    private static final int MAX_LISTENERS = 1024;
+
+    private static final AtomicInteger DISPATCHER_ID = new AtomicInteger(0);
+
+    private ASMEventDispatcherGen() {
+    }
+
+    /**
+     * Generates a dispatcher for the given subscriptions.
+     *
+     * @param eventClass    The event class dispatched by the dispatcher
+     * @param subscriptions The subscriptions to invoke, in order
+     * @return The dispatcher, or null if there are too many subscriptions, or
+     * if no class loader can see all the classes the dispatcher refers to.
+     */
+    public static @Nullable ASMEventDispatcher generateDispatcher(@NotNull Class<?> eventClass, @NotNull Subscription[] subscriptions) {
+        if (subscriptions.length > MAX_LISTENERS) return null;
+        Object[] targets = new Object[subscriptions.length];
+        java.lang.reflect.Method[] methods = new java.lang.reflect.Method[subscriptions.length];
+        Set<Class<?>> referenced = new LinkedHashSet<>();
+        for (int i = 0; i < subscriptions.length; i++) {
+            EventListener<?> listener = subscriptions[i].getListener();
+            if (listener instanceof ASMBoundListener && isPublic(((ASMBoundListener<?>) listener).getMethod())) {
+                java.lang.reflect.Method method = ((ASMBoundListener<?>) listener).getMethod();
+                methods[i] = method;
+                targets[i] = ((ASMBoundListener<?>) listener).getInstance();
+                referenced.add(method.getDeclaringClass());
+                referenced.add(method.getParameterTypes()[0]);
+                referenced.add(method.getReturnType());
+            } else {
+                targets[i] = listener;
+            }
+        }
+        Class<?> host = findHost(eventClass, referenced);
+        if (host == null) return null;
+
+        String packageName = host.getName().substring(0, host.getName().lastIndexOf('.') + 1);
+        String name = packageName + eventClass.getSimpleName() + "Dispatcher" + DISPATCHER_ID.incrementAndGet();
+        Type dispatcherType = Type.getObjectType(name.replace('.', '/'));
+        ClassWriter writer = GeneratorAdapter.newClassWriter(name, INTERFACES);
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "subscriptions", SUBSCRIPTION_ARRAY.getDescriptor(), null, null).visitEnd();
+        for (int i = 0; i < targets.length; i++) {
+            if (methods[i] != null && Modifier.isStatic(methods[i].getModifiers())) continue;
+            writer.visitField(ACC_PRIVATE | ACC_FINAL, "target" + i, targetType(methods[i]).getDescriptor(), null, null).visitEnd();
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (subscriptions[i].getFilter() != null)
+                writer.visitField(ACC_PRIVATE | ACC_FINAL, "filter" + i, PREDICATE_TYPE.getDescriptor(), null, null).visitEnd();
+        }
+
+        // generate constructor
+        GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, "<init>", "([Ljava/lang/Object;[L" + Type.getInternalName(Subscription.class) + ";)V");
+        adapter.loadThis();
+        adapter.invokeConstructor();
+        adapter.loadThis();
+        adapter.loadArg(1);
+        adapter.putField(dispatcherType, "subscriptions", SUBSCRIPTION_ARRAY);
+        for (int i = 0; i < targets.length; i++) {
+            if (methods[i] != null && Modifier.isStatic(methods[i].getModifiers())) continue;
+            Type targetType = targetType(methods[i]);
+            adapter.loadThis();
+            adapter.loadArg(0);
+            adapter.push(i);
+            adapter.arrayLoad(GeneratorAdapter.OBJECT_TYPE);
+            adapter.checkCast(targetType);
+            adapter.putField(dispatcherType, "target" + i, targetType);
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (subscriptions[i].getFilter() == null) continue;
+            adapter.loadThis();
+            adapter.loadArg(1);
+            adapter.push(i);
+            adapter.arrayLoad(SUBSCRIPTION_ARRAY.getElementType());
+            adapter.invokeVirtual(SUBSCRIPTION_ARRAY.getElementType(), GET_FILTER);
+            adapter.putField(dispatcherType, "filter" + i, PREDICATE_TYPE);
+        }
+        adapter.returnValue();
+        adapter.endMethod();
+
+        // generate dispatch methods, each invoking a chunk of the listeners
+        boolean cancellable = Cancellable.class.isAssignableFrom(eventClass);
+        String dispatchDescriptor = "(Ljava/lang/Object;" + HANDLER_TYPE.getDescriptor() + ")V";
+        int chunks = (targets.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        adapter = GeneratorAdapter.newMethodGenerator(writer, "dispatch", dispatchDescriptor);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            adapter.loadThis();
+            adapter.loadArg(0);
+            adapter.loadArg(1);
+            adapter.invokeVirtual(dispatcherType, new Method("dispatch" + chunk, dispatchDescriptor));
+        }
+        adapter.returnValue();
+        adapter.endMethod();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            adapter = GeneratorAdapter.newMethodGenerator(writer, "dispatch" + chunk, dispatchDescriptor);
+            int throwable = adapter.newLocal(THROWABLE_TYPE);
+            for (int i = chunk * CHUNK_SIZE; i < Math.min(targets.length, (chunk + 1) * CHUNK_SIZE); i++)
+                generateInvocation(adapter, dispatcherType, subscriptions[i], methods[i], i, cancellable, throwable);
+            adapter.returnValue();
+            adapter.endMethod();
+        }
+        writer.visitEnd();
+        byte[] generated = writer.toByteArray();
+        try {
+            Constructor<? extends ASMEventDispatcher> constructor = GeneratedClassDefiner
+                    .defineHidden(host, name, generated)
+                    .asSubclass(ASMEventDispatcher.class)
+                    .getConstructor(Object[].class, Subscription[].class);
+            return constructor.newInstance(targets, subscriptions);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to generate a dispatcher for " + eventClass.getName(), e);
+        }
+    }
+
+    /**
+     * Generates the invocation of the listener at the given index, which
+     * passes any thrown exception to the exception handler.
+     */
+    private static void generateInvocation(@NotNull GeneratorAdapter adapter, @NotNull Type dispatcherType,
+                                           @NotNull Subscription subscription, @Nullable java.lang.reflect.Method method,
+                                           int i, boolean cancellable, int throwable) {
+        Label next = adapter.newLabel();
+        if (cancellable && !subscription.receivesCancelled()) {
+            // skip the listener if the event has been cancelled
+            adapter.loadArg(0);
+            adapter.checkCast(CANCELLABLE_TYPE);
+            adapter.invokeInterface(CANCELLABLE_TYPE, IS_CANCELLED);
+            adapter.ifZCmp(GeneratorAdapter.NE, next);
+        }
+        Label start = adapter.mark();
+        if (subscription.getFilter() != null) {
+            // skip the listener if its filter rejects the event
+            adapter.loadThis();
+            adapter.getField(dispatcherType, "filter" + i, PREDICATE_TYPE);
+            adapter.loadArg(0);
+            adapter.invokeInterface(PREDICATE_TYPE, TEST);
+            adapter.ifZCmp(GeneratorAdapter.EQ, next);
+        }
+        if (method == null) {
+            adapter.loadThis();
+            adapter.getField(dispatcherType, "target" + i, LISTENER_TYPE);
+            adapter.loadArg(0);
+            adapter.invokeInterface(LISTENER_TYPE, HANDLE);
+        } else {
+            Type listenerType = Type.getType(method.getDeclaringClass());
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            if (!isStatic) {
+                adapter.loadThis();
+                adapter.getField(dispatcherType, "target" + i, listenerType);
+            }
+            adapter.loadArg(0);
+            adapter.checkCast(Type.getType(method.getParameterTypes()[0]));
+            if (isStatic)
+                adapter.invokeStatic(listenerType, Method.getMethod(method));
+            else if (method.getDeclaringClass().isInterface())
+                adapter.invokeInterface(listenerType, Method.getMethod(method));
+            else
+                adapter.invokeVirtual(listenerType, Method.getMethod(method));
+            Type returnType = Type.getReturnType(method);
+            if (returnType.getSize() == 2)
+                adapter.pop2();
+            else if (returnType.getSize() == 1)
+                adapter.pop();
+        }
+        Label end = adapter.mark();
+        adapter.goTo(next);
+        adapter.catchException(start, end, THROWABLE_TYPE);
+        adapter.storeLocal(throwable);
+        adapter.loadArg(1);
+        adapter.loadThis();
+        adapter.getField(dispatcherType, "subscriptions", SUBSCRIPTION_ARRAY);
+        adapter.push(i);
+        adapter.arrayLoad(SUBSCRIPTION_ARRAY.getElementType());
+        adapter.loadArg(0);
+        adapter.loadLocal(throwable);
+        adapter.invokeInterface(HANDLER_TYPE, HANDLE_EXCEPTION);
+        adapter.mark(next);
+    }
+
+    private static Type targetType(@Nullable java.lang.reflect.Method method) {
+        return method == null ? LISTENER_TYPE : Type.getType(method.getDeclaringClass());
+    }
+
+    private static boolean isPublic(@NotNull java.lang.reflect.Method method) {
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * Finds a class to host the dispatcher, whose class loader resolves all
+     * the given classes to the same classes.
+     */
+    private static @Nullable Class<?> findHost(@NotNull Class<?> eventClass, @NotNull Set<Class<?>> referenced) {
+        Set<Class<?>> candidates = new LinkedHashSet<>();
+        candidates.add(eventClass);
+        candidates.addAll(referenced);
+        candidates.add(ASMEventDispatcher.class);
+        for (Class<?> candidate : candidates) {
+            if (candidate.getClassLoader() == null || candidate.isArray() || candidate.getName().startsWith("java.")) continue;
+            if (canSee(candidate.getClassLoader(), referenced)) return candidate;
+        }
+        return null;
+    }
+
+    private static boolean canSee(@NotNull ClassLoader loader, @NotNull Set<Class<?>> referenced) {
+        try {
+            for (Class<?> type : LIBRARY_TYPES) {
+                if (Class.forName(type.getName(), false, loader) != type) return false;
+            }
+            for (Class<?> type : referenced) {
+                while (type.isArray()) type = type.getComponentType();
+                if (type.isPrimitive()) continue;
+                if (Class.forName(type.getName(), false, loader) != type) return false;
+            }
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
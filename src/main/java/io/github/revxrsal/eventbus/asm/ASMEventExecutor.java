@@ -7,6 +7,20 @@ public interface ASMEventExecutor {
 
     void invokeASMEvent(Object listener, Object event) throws Throwable;
 
+    /**
+     * Invokes the listener method, and returns its result, boxed if it is a
+     * primitive. Methods that return nothing respond with null.
+     *
+     * @param listener The listener instance, ignored for static methods
+     * @param event    The event
+     * @return The result of the listener method
+     * @throws Throwable Any throwable thrown by the listener method
+     */
+    default Object respondASMEvent(Object listener, Object event) throws Throwable {
+        invokeASMEvent(listener, event);
+        return null;
+    }
+
     default <T> EventListener<T> bindTo(@NotNull Object instance) {
         return event -> invokeASMEvent(instance, event);
     }
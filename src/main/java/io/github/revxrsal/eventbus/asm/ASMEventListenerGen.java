@@ -7,12 +7,18 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
 import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A delegating event listener that uses ASM to invoke the listener. This
  * should improve performance and match up to be as fast as normal method
  * invocation, without the need to use reflection.
+ * <p>
+ * Only one executor class is generated per listener method, which is then
+ * bound to every registered instance. Executors are cached per listener
+ * class, so they do not keep the listener's class loader alive.
  */
 class ASMEventListenerGen implements Opcodes {
 
@@ -20,8 +26,21 @@ class ASMEventListenerGen implements Opcodes {
     private static final String[] EXCEPTION = new String[]{Type.getInternalName(Throwable.class)};
 
     private static final AtomicInteger LISTENER_ID = new AtomicInteger(0);
+    private static final ClassValue<Map<java.lang.reflect.Method, ASMEventExecutor>> EXECUTORS = new ClassValue<Map<java.lang.reflect.Method, ASMEventExecutor>>() {
+        @Override protected Map<java.lang.reflect.Method, ASMEventExecutor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     public static <T> EventListener<T> generateListener(@NotNull Object instance, @NotNull java.lang.reflect.Method listenerMethod) {
+        return generateExecutor(listenerMethod).bindTo(instance);
+    }
+
+    public static ASMEventExecutor generateExecutor(@NotNull java.lang.reflect.Method listenerMethod) {
+        return EXECUTORS.get(listenerMethod.getDeclaringClass()).computeIfAbsent(listenerMethod, ASMEventListenerGen::createExecutor);
+    }
+
+    private static ASMEventExecutor createExecutor(@NotNull java.lang.reflect.Method listenerMethod) {
         String name = listenerMethod.getDeclaringClass().getName() + "Listener" + LISTENER_ID.incrementAndGet();
         ClassWriter writer = GeneratorAdapter.newClassWriter(name, INTERFACES);
 
@@ -29,9 +48,39 @@ class ASMEventListenerGen implements Opcodes {
         Type listenerType = Type.getType(listenerMethod.getDeclaringClass());
         Type eventType = Type.getType(listenerMethod.getParameterTypes()[0]);
 
+        Type returnType = Type.getReturnType(listenerMethod);
+
         // generate handle method
         GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, "invokeASMEvent", "(Ljava/lang/Object;Ljava/lang/Object;)V", EXCEPTION);
+        generateInvocation(adapter, listenerMethod, listenerType, eventType);
+        if (returnType.getSize() == 2)
+            adapter.pop2();
+        else if (returnType.getSize() == 1)
+            adapter.pop();
+        adapter.returnValue();
+        adapter.endMethod();
 
+        // generate respond method, returning the boxed result
+        if (returnType != Type.VOID_TYPE) {
+            adapter = GeneratorAdapter.newMethodGenerator(writer, "respondASMEvent", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", EXCEPTION);
+            generateInvocation(adapter, listenerMethod, listenerType, eventType);
+            adapter.valueOf(returnType);
+            adapter.returnValue();
+            adapter.endMethod();
+        }
+        writer.visitEnd();
+        byte[] generated = writer.toByteArray();
+        try {
+            return GeneratedClassDefiner
+                    .defineHidden(listenerMethod.getDeclaringClass(), name, generated)
+                    .asSubclass(ASMEventExecutor.class)
+                    .newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e); // should never happen as a matter of fact unless something stupid happens...
+        }
+    }
+
+    private static void generateInvocation(GeneratorAdapter adapter, java.lang.reflect.Method listenerMethod, Type listenerType, Type eventType) {
         if (!Modifier.isStatic(listenerMethod.getModifiers())) {
             adapter.loadArg(0);
             adapter.checkCast(listenerType);
@@ -43,20 +92,5 @@ class ASMEventListenerGen implements Opcodes {
         } else {
             adapter.invokeVirtual(listenerType, Method.getMethod(listenerMethod));
         }
-        adapter.returnValue();
-        adapter.endMethod();
-        writer.visitEnd();
-        byte[] generated = writer.toByteArray();
-        try {
-            return GeneratedClassDefiner
-                    .define(listenerMethod.getDeclaringClass().getClassLoader(), name, generated)
-                    .asSubclass(ASMEventExecutor.class)
-                    .newInstance()
-                    .bindTo(instance);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e); // should never happen as a matter of fact unless something stupid happens...
-        }
     }
-
-
 }
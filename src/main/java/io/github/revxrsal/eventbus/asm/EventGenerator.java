@@ -1,5 +1,6 @@
 package io.github.revxrsal.eventbus.asm;
 
+import io.github.revxrsal.eventbus.Cancellable;
 import io.github.revxrsal.eventbus.gen.Index;
 import io.github.revxrsal.eventbus.gen.Property;
 import io.github.revxrsal.eventbus.gen.RequireNonNull;
@@ -8,7 +9,7 @@ import org.objectweb.asm.*;
 
 import java.lang.reflect.Parameter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static io.github.revxrsal.eventbus.asm.GeneratorAdapter.DEFAULT_CONSTRUCTOR;
@@ -16,7 +17,17 @@ import static io.github.revxrsal.eventbus.asm.GeneratorAdapter.OBJECT_TYPE;
 
 final class EventGenerator implements Opcodes {
 
-    private static final Map<Class<?>, GeneratedEventFactory> FACTORIES = new ConcurrentHashMap<>();
+    /**
+     * The generated factory of every event interface. Factories are created
+     * under the lock of their slot rather than in computeValue(), which may
+     * run concurrently for the same interface and would define the generated
+     * classes twice.
+     */
+    private static final ClassValue<AtomicReference<GeneratedEventFactory>> FACTORIES = new ClassValue<AtomicReference<GeneratedEventFactory>>() {
+        @Override protected AtomicReference<GeneratedEventFactory> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
 
     private static final String GEN_FACTORY = Type.getInternalName(GeneratedEventFactory.class);
     private static final Type OBJECTS = Type.getType(Objects.class);
@@ -40,212 +51,225 @@ final class EventGenerator implements Opcodes {
         if (!eventType.isInterface()) {
             throw new IllegalArgumentException("Event class must be an interface!");
         }
-        return FACTORIES.computeIfAbsent(eventType, eventClass -> {
-            String name = eventClass.getPackage().getName() + ".gen." + eventClass.getSimpleName();
-            Type genType = Type.getType("L" + name.replace('.', '/') + ";");
-            ClassWriter writer = GeneratorAdapter.newClassWriter(name, Type.getInternalName(eventClass));
-            List<CtrType> constructorTypes = new ArrayList<>();
-            List<String> fieldNames = new ArrayList<>();
-            FieldVisitor fieldVisitor;
-            for (java.lang.reflect.Method method : eventClass.getMethods()) {
-                if (method.isDefault()) continue;
-                Property propertyAnn = method.getAnnotation(Property.class);
-                Index indexAnn = method.getAnnotation(Index.class);
-                if (indexAnn == null && propertyAnn == null) {
-                    throw new IllegalArgumentException("Found an abstract method (" + method.getName() + ") that is not annotated with @Index or @Property!");
+        AtomicReference<GeneratedEventFactory> slot = FACTORIES.get(eventType);
+        GeneratedEventFactory factory = slot.get();
+        if (factory == null) {
+            synchronized (slot) {
+                factory = slot.get();
+                if (factory == null) {
+                    factory = createFactory(eventType);
+                    slot.set(factory);
                 }
+            }
+        }
+        return factory;
+    }
 
-                String fieldName = getFieldName(method.getName());
-                if (!method.getName().startsWith("set")) {
-                    if (method.getReturnType() == Void.TYPE) {
-                        throw new IllegalArgumentException("Don't know how to implement a getter void method (" + method.getName() + ")");
-                    }
-                    Type fieldType = Type.getType(method.getReturnType());
-                    fieldVisitor = writer.visitField(ACC_PRIVATE, fieldName, fieldType.getDescriptor(), null, null);
-                    fieldVisitor.visitEnd();
-                    if (indexAnn != null)
-                    constructorTypes.add(new CtrType(indexAnn.value(), fieldType, fieldName));
-                    // generate getter
-                    GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, method.getName(), Type.getMethodDescriptor(method));
-                    adapter.loadThis();
-                    adapter.getField(genType, fieldName, fieldType);
-                    adapter.returnValue();
-                    adapter.endMethod();
-                } else { // method is setter
-                    if (method.getReturnType() != Void.TYPE) {
-                        throw new IllegalArgumentException("Setter method " + method.getName() + " must return void! (Found " + method.getReturnType().getName() + ")");
-                    }
-                    Parameter p = method.getParameters()[0];
-                    Type fieldType = Type.getType(p.getType());
-                    GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, method.getName(), Type.getMethodDescriptor(method));
-                    adapter.loadThis();
-                    adapter.loadArg(0);
+    private static GeneratedEventFactory createFactory(@NotNull Class<?> eventClass) {
+        String name = eventClass.getPackage().getName() + ".gen." + eventClass.getSimpleName();
+        Type genType = Type.getType("L" + name.replace('.', '/') + ";");
+        ClassWriter writer = GeneratorAdapter.newClassWriter(name, Type.getInternalName(eventClass));
+        List<CtrType> constructorTypes = new ArrayList<>();
+        List<String> fieldNames = new ArrayList<>();
+        FieldVisitor fieldVisitor;
+        for (java.lang.reflect.Method method : eventClass.getMethods()) {
+            if (method.isDefault()) continue;
+            Property propertyAnn = method.getAnnotation(Property.class);
+            Index indexAnn = method.getAnnotation(Index.class);
+            if (indexAnn == null && propertyAnn == null && method.getDeclaringClass() != Cancellable.class) {
+                throw new IllegalArgumentException("Found an abstract method (" + method.getName() + ") that is not annotated with @Index or @Property!");
+            }
 
-                    if (p.isAnnotationPresent(RequireNonNull.class) && !p.getType().isPrimitive()) {
-                        adapter.push(p.getAnnotation(RequireNonNull.class).value().replace("$field", fieldName));
-                        adapter.invokeStatic(OBJECTS, REQ_NON_NULL);
-                    }
-                    if (fieldType.getSort() == Type.OBJECT)
-                        adapter.checkCast(fieldType);
-                    adapter.putField(genType, fieldName, fieldType);
-                    adapter.returnValue();
-                    adapter.endMethod();
+            String fieldName = getFieldName(method.getName());
+            if (!method.getName().startsWith("set")) {
+                if (method.getReturnType() == Void.TYPE) {
+                    throw new IllegalArgumentException("Don't know how to implement a getter void method (" + method.getName() + ")");
                 }
-            }
-            constructorTypes.sort(Comparator.comparingInt(c -> c.index));
-            String constructor = "(" + constructorTypes.stream().map(c -> c.type.toString()).collect(Collectors.joining()) + ")V";
-            GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, "<init>", constructor);
-            {
+                Type fieldType = Type.getType(method.getReturnType());
+                fieldVisitor = writer.visitField(ACC_PRIVATE, fieldName, fieldType.getDescriptor(), null, null);
+                fieldVisitor.visitEnd();
+                if (indexAnn != null)
+                constructorTypes.add(new CtrType(indexAnn.value(), fieldType, fieldName));
+                // generate getter
+                GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, method.getName(), Type.getMethodDescriptor(method));
                 adapter.loadThis();
-                adapter.invokeConstructor();
-                for (int i = 0; i < constructorTypes.size(); i++) {
-                    CtrType type = constructorTypes.get(i);
-                    adapter.loadThis();
-                    adapter.loadArg(i);
-                    adapter.putField(genType, type.fieldName, type.type);
-                }
+                adapter.getField(genType, fieldName, fieldType);
                 adapter.returnValue();
                 adapter.endMethod();
-            }
-
-            // generate equals()
-            {
-                adapter = GeneratorAdapter.newMethodGenerator(writer, "equals", "(Ljava/lang/Object;)Z");
-                adapter.visitCode();
-                adapter.writeLabel();
+            } else { // method is setter
+                if (method.getReturnType() != Void.TYPE) {
+                    throw new IllegalArgumentException("Setter method " + method.getName() + " must return void! (Found " + method.getReturnType().getName() + ")");
+                }
+                Parameter p = method.getParameters()[0];
+                Type fieldType = Type.getType(p.getType());
+                GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, method.getName(), Type.getMethodDescriptor(method));
                 adapter.loadThis();
                 adapter.loadArg(0);
-                Label label = new Label();
-                adapter.ifCmp(genType, GeneratorAdapter.NE, label);
-                adapter.push(true);
-                adapter.returnValue(); // if (this == object) return true;
-                adapter.visitLabel(label);
 
-                adapter.visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-
-                adapter.loadArg(0);
-                adapter.instanceOf(genType);
-                label = new Label();
-                adapter.visitJumpInsn(IFNE, label);
-                adapter.push(false); // if (!(anothes instanceof OurEvent)) return false;
-                adapter.returnValue();
-                adapter.visitLabel(label);
-                adapter.visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-                adapter.newInstance(EQUALS_BUILDER);
-                adapter.dup();
-                adapter.invokeConstructor(EQUALS_BUILDER, DEFAULT_CONSTRUCTOR);
-                int builderLocal = adapter.newLocal(EQUALS_BUILDER);
-                adapter.storeLocal(builderLocal);
-                if (eventClass.getInterfaces().length > 0) {
-                    adapter.loadLocal(builderLocal);
-                    adapter.loadThis();
-                    adapter.loadArg(0);
-                    adapter.invokeConstructor(OBJECT_TYPE, EQUALS);
-                    adapter.invokeVirtual(EQUALS_BUILDER, APPEND_SUPER);
+                if (p.isAnnotationPresent(RequireNonNull.class) && !p.getType().isPrimitive()) {
+                    adapter.push(p.getAnnotation(RequireNonNull.class).value().replace("$field", fieldName));
+                    adapter.invokeStatic(OBJECTS, REQ_NON_NULL);
                 }
-                for (CtrType type : constructorTypes) {
-                    adapter.loadLocal(builderLocal);
-                    adapter.loadThis();
-                    adapter.getField(genType, type.fieldName, type.type);
-                    adapter.loadArg(0);
-                    adapter.checkCast(genType);
-                    adapter.getField(genType, type.fieldName, type.type);
-                    adapter.invokeVirtual(EQUALS_BUILDER, APPEND_METHODS.getOrDefault(type.type, APPEND));
-                    adapter.pop();
-                }
-                adapter.writeLabel();
-                adapter.loadLocal(builderLocal);
-                adapter.invokeVirtual(EQUALS_BUILDER, IS_EQUAL);
+                if (fieldType.getSort() == Type.OBJECT)
+                    adapter.checkCast(fieldType);
+                adapter.putField(genType, fieldName, fieldType);
                 adapter.returnValue();
-                adapter.writeLabel();
                 adapter.endMethod();
             }
+        }
+        constructorTypes.sort(Comparator.comparingInt(c -> c.index));
+        String constructor = "(" + constructorTypes.stream().map(c -> c.type.toString()).collect(Collectors.joining()) + ")V";
+        GeneratorAdapter adapter = GeneratorAdapter.newMethodGenerator(writer, "<init>", constructor);
+        {
+            adapter.loadThis();
+            adapter.invokeConstructor();
+            for (int i = 0; i < constructorTypes.size(); i++) {
+                CtrType type = constructorTypes.get(i);
+                adapter.loadThis();
+                adapter.loadArg(i);
+                adapter.putField(genType, type.fieldName, type.type);
+            }
+            adapter.returnValue();
+            adapter.endMethod();
+        }
 
-            // generate hashCode()
-            {
-                adapter = GeneratorAdapter.newMethodGenerator(writer, "hashCode", "()I");
-                adapter.push(constructorTypes.size());
-                adapter.newArray(OBJECT_TYPE);
-                for (int i = 0; i < constructorTypes.size(); i++) {
-                    adapter.dup();
-                    CtrType type = constructorTypes.get(i);
-                    adapter.push(i);
-                    adapter.loadThis();
-                    adapter.getField(genType, type.fieldName, type.type);
-                    adapter.box(type.type);
-                    adapter.arrayStore(OBJECT_TYPE);
-                }
-                adapter.invokeStatic(OBJECTS, HASH);
-                adapter.returnValue();
-                adapter.endMethod();
+        // generate equals()
+        {
+            adapter = GeneratorAdapter.newMethodGenerator(writer, "equals", "(Ljava/lang/Object;)Z");
+            adapter.visitCode();
+            adapter.writeLabel();
+            adapter.loadThis();
+            adapter.loadArg(0);
+            Label label = new Label();
+            adapter.ifCmp(genType, GeneratorAdapter.NE, label);
+            adapter.push(true);
+            adapter.returnValue(); // if (this == object) return true;
+            adapter.visitLabel(label);
+
+            adapter.visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+
+            adapter.loadArg(0);
+            adapter.instanceOf(genType);
+            label = new Label();
+            adapter.visitJumpInsn(IFNE, label);
+            adapter.push(false); // if (!(anothes instanceof OurEvent)) return false;
+            adapter.returnValue();
+            adapter.visitLabel(label);
+            adapter.visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+            adapter.newInstance(EQUALS_BUILDER);
+            adapter.dup();
+            adapter.invokeConstructor(EQUALS_BUILDER, DEFAULT_CONSTRUCTOR);
+            int builderLocal = adapter.newLocal(EQUALS_BUILDER);
+            adapter.storeLocal(builderLocal);
+            if (eventClass.getInterfaces().length > 0) {
+                adapter.loadLocal(builderLocal);
+                adapter.loadThis();
+                adapter.loadArg(0);
+                adapter.invokeConstructor(OBJECT_TYPE, EQUALS);
+                adapter.invokeVirtual(EQUALS_BUILDER, APPEND_SUPER);
+            }
+            for (CtrType type : constructorTypes) {
+                adapter.loadLocal(builderLocal);
+                adapter.loadThis();
+                adapter.getField(genType, type.fieldName, type.type);
+                adapter.loadArg(0);
+                adapter.checkCast(genType);
+                adapter.getField(genType, type.fieldName, type.type);
+                adapter.invokeVirtual(EQUALS_BUILDER, APPEND_METHODS.getOrDefault(type.type, APPEND));
+                adapter.pop();
             }
+            adapter.writeLabel();
+            adapter.loadLocal(builderLocal);
+            adapter.invokeVirtual(EQUALS_BUILDER, IS_EQUAL);
+            adapter.returnValue();
+            adapter.writeLabel();
+            adapter.endMethod();
+        }
 
-            // generate toString()
-            {
-                adapter = GeneratorAdapter.newMethodGenerator(writer, "toString", "()Ljava/lang/String;");
-                adapter.newInstance(TO_STRING_BUILDER);
+        // generate hashCode()
+        {
+            adapter = GeneratorAdapter.newMethodGenerator(writer, "hashCode", "()I");
+            adapter.push(constructorTypes.size());
+            adapter.newArray(OBJECT_TYPE);
+            for (int i = 0; i < constructorTypes.size(); i++) {
                 adapter.dup();
-                adapter.push(eventClass.getSimpleName());
-                adapter.invokeConstructor(TO_STRING_BUILDER, TO_STRING_BUILDER_CONSTRUCTOR);
-                int localIndex = adapter.newLocal(TO_STRING_BUILDER);
-                adapter.storeLocal(localIndex);
-                for (CtrType type : constructorTypes) {
-                    adapter.loadLocal(localIndex);
-                    adapter.push(type.fieldName);
-                    adapter.loadThis();
-                    adapter.getField(genType, type.fieldName, type.type);
-                    adapter.box(type.type);
-                    adapter.invokeVirtual(TO_STRING_BUILDER, TO_STRING_APPEND);
-                }
-                adapter.loadLocal(localIndex);
-                adapter.invokeVirtual(TO_STRING_BUILDER, TO_STRING);
-                adapter.returnValue();
-                adapter.endMethod();
+                CtrType type = constructorTypes.get(i);
+                adapter.push(i);
+                adapter.loadThis();
+                adapter.getField(genType, type.fieldName, type.type);
+                adapter.box(type.type);
+                adapter.arrayStore(OBJECT_TYPE);
             }
-            byte[] generated = writer.toByteArray();
-            GeneratedClassDefiner.define(eventClass.getClassLoader(), name, generated);
+            adapter.invokeStatic(OBJECTS, HASH);
+            adapter.returnValue();
+            adapter.endMethod();
+        }
 
-            // generate a factory to invoke the object constructor
-            name = GeneratedEventFactory.class.getPackage().getName() + "_." + eventClass.getSimpleName() + "GeneratedEventFactory";
-            writer = GeneratorAdapter.newClassWriter(name, GEN_FACTORY);
-            GeneratorAdapter.writeConstructor(writer);
-            adapter = GeneratorAdapter.newMethodGenerator(writer, "newEvent", "([Ljava/lang/Object;)Ljava/lang/Object;");
-            adapter.newInstance(genType);
+        // generate toString()
+        {
+            adapter = GeneratorAdapter.newMethodGenerator(writer, "toString", "()Ljava/lang/String;");
+            adapter.newInstance(TO_STRING_BUILDER);
             adapter.dup();
-            for (int i = 0; i < constructorTypes.size(); i++) {
-                CtrType p = constructorTypes.get(i);
-                adapter.loadArg(0);
-                adapter.push(i);
-                adapter.arrayLoad(OBJECT_TYPE);
-                if (p.type.getSort() != Type.OBJECT) {
-                    adapter.unbox(p.type);
-                } else {
-                    adapter.checkCast(p.type);
-                }
+            adapter.push(eventClass.getSimpleName());
+            adapter.invokeConstructor(TO_STRING_BUILDER, TO_STRING_BUILDER_CONSTRUCTOR);
+            int localIndex = adapter.newLocal(TO_STRING_BUILDER);
+            adapter.storeLocal(localIndex);
+            for (CtrType type : constructorTypes) {
+                adapter.loadLocal(localIndex);
+                adapter.push(type.fieldName);
+                adapter.loadThis();
+                adapter.getField(genType, type.fieldName, type.type);
+                adapter.box(type.type);
+                adapter.invokeVirtual(TO_STRING_BUILDER, TO_STRING_APPEND);
             }
-            adapter.invokeConstructor(genType, new Method("<init>", constructor));
+            adapter.loadLocal(localIndex);
+            adapter.invokeVirtual(TO_STRING_BUILDER, TO_STRING);
             adapter.returnValue();
             adapter.endMethod();
+        }
+        byte[] generated = writer.toByteArray();
+        GeneratedClassDefiner.define(eventClass.getClassLoader(), name, generated);
 
-            generated = writer.toByteArray();
-            try {
-                GeneratedEventFactory factory = GeneratedClassDefiner.define(eventClass.getClassLoader(), name, generated)
-                        .asSubclass(GeneratedEventFactory.class)
-                        .newInstance();
-                return parameters -> {
-                    try {
-                        return factory.newEvent(parameters);
-                    } catch (ArrayIndexOutOfBoundsException e) {
-                        throw new IllegalArgumentException("Received invalid argument size. Expected: " + constructorTypes.size() + ", found: " + parameters.length);
-                    } catch (ClassCastException e) {
-                        throw new IllegalArgumentException("Received incorrect argument types.", e);
-                    }
-                };
-            } catch (InstantiationException | IllegalAccessException e) {
-                e.printStackTrace();
-                throw new IllegalStateException();
+        // generate a factory to invoke the object constructor
+        name = GeneratedEventFactory.class.getPackage().getName() + "_." + eventClass.getSimpleName() + "GeneratedEventFactory";
+        writer = GeneratorAdapter.newClassWriter(name, GEN_FACTORY);
+        GeneratorAdapter.writeConstructor(writer);
+        adapter = GeneratorAdapter.newMethodGenerator(writer, "newEvent", "([Ljava/lang/Object;)Ljava/lang/Object;");
+        adapter.newInstance(genType);
+        adapter.dup();
+        for (int i = 0; i < constructorTypes.size(); i++) {
+            CtrType p = constructorTypes.get(i);
+            adapter.loadArg(0);
+            adapter.push(i);
+            adapter.arrayLoad(OBJECT_TYPE);
+            if (p.type.getSort() != Type.OBJECT) {
+                adapter.unbox(p.type);
+            } else {
+                adapter.checkCast(p.type);
             }
-        });
+        }
+        adapter.invokeConstructor(genType, new Method("<init>", constructor));
+        adapter.returnValue();
+        adapter.endMethod();
+
+        generated = writer.toByteArray();
+        try {
+            GeneratedEventFactory factory = GeneratedClassDefiner.define(eventClass.getClassLoader(), name, generated)
+                    .asSubclass(GeneratedEventFactory.class)
+                    .newInstance();
+            return parameters -> {
+                try {
+                    return factory.newEvent(parameters);
+                } catch (ArrayIndexOutOfBoundsException e) {
+                    throw new IllegalArgumentException("Received invalid argument size. Expected: " + constructorTypes.size() + ", found: " + parameters.length);
+                } catch (ClassCastException e) {
+                    throw new IllegalArgumentException("Received incorrect argument types.", e);
+                }
+            };
+        } catch (InstantiationException | IllegalAccessException e) {
+            e.printStackTrace();
+            throw new IllegalStateException();
+        }
     }
 
     private static String getFieldName(String methodName) {
@@ -1,24 +1,102 @@
 package io.github.revxrsal.eventbus.asm;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+/**
+ * Defines generated classes.
+ * <p>
+ * Classes are defined in child class loaders of their parent loaders, which
+ * are only weakly referenced so that neither the parent loaders nor the
+ * generated classes are kept alive by the definer. Where supported (Java 15+),
+ * classes that are never referenced by name are defined as hidden classes
+ * instead, which can be unloaded as soon as they are unreachable.
+ * <p>
+ * Defining a hidden class requires a lookup with full privilege access in
+ * the host's module, which {@code privateLookupIn} only grants for hosts in
+ * the module of this library. Classes for hosts of other class loaders, such
+ * as plugins, are defined in child loaders, and nothing is ever defined in
+ * the host's own loader.
+ */
 final class GeneratedClassDefiner {
 
     public static final GeneratedClassDefiner INSTANCE = new GeneratedClassDefiner();
-    private final ConcurrentMap<ClassLoader, GeneratedClassLoader> loaders = new ConcurrentHashMap<>();
+
+    private static final MethodHandle PRIVATE_LOOKUP_IN;
+    private static final MethodHandle HAS_FULL_PRIVILEGE_ACCESS;
+    private static final MethodHandle DEFINE_HIDDEN_CLASS;
+    private static final Object NO_CLASS_OPTIONS;
+
+    /**
+     * Lookups with full privilege access in the runtime package of each
+     * host class, or null if there is no such access.
+     */
+    private static final ClassValue<MethodHandles.Lookup> HOST_LOOKUPS = new ClassValue<MethodHandles.Lookup>() {
+        @Override protected MethodHandles.Lookup computeValue(Class<?> host) {
+            try {
+                return fullPrivilegeLookup(host);
+            } catch (Throwable ignored) {
+                return null; // the host's package is not open to us
+            }
+        }
+    };
+
+    private final Map<ClassLoader, WeakReference<GeneratedClassLoader>> loaders = new WeakHashMap<>(); // guarded by this
 
     private GeneratedClassDefiner() {
     }
 
-    public static Class<?> define(@NotNull ClassLoader parentLoader, @NotNull String name, byte[] data) {
+    public static Class<?> define(@Nullable ClassLoader parentLoader, @NotNull String name, byte[] data) {
         return INSTANCE.defineClass(parentLoader, name, data);
     }
 
+    /**
+     * Defines the given class as a hidden class in the runtime package of
+     * the given host class where supported, otherwise in a child loader of
+     * the host's class loader.
+     * <p>
+     * The class name must be in the same package as the host, and the class
+     * must not be referenced by name from any other class.
+     *
+     * @param host The host class
+     * @param name The class name
+     * @param data The class bytes
+     * @return The defined class
+     */
+    public static Class<?> defineHidden(@NotNull Class<?> host, @NotNull String name, byte[] data) {
+        MethodHandles.Lookup lookup = DEFINE_HIDDEN_CLASS == null ? null : HOST_LOOKUPS.get(host);
+        if (lookup != null) {
+            try {
+                return ((MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(lookup, data, false, NO_CLASS_OPTIONS)).lookupClass();
+            } catch (Throwable ignored) {
+                // the class cannot be defined as a hidden class, fall back to a class loader
+            }
+        }
+        return define(host.getClassLoader(), name, data);
+    }
+
+    /**
+     * Returns a lookup with full privilege access in the runtime package of
+     * the given host, or null if {@code privateLookupIn} does not grant it.
+     *
+     * @param host The host class
+     * @return The lookup, or null
+     */
+    private static @Nullable MethodHandles.Lookup fullPrivilegeLookup(Class<?> host) throws Throwable {
+        MethodHandles.Lookup lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invokeExact(host, MethodHandles.lookup());
+        return (boolean) HAS_FULL_PRIVILEGE_ACCESS.invokeExact(lookup) ? lookup : null;
+    }
+
     private Class<?> defineClass(ClassLoader parentLoader, String name, byte[] data) {
-        final GeneratedClassLoader loader = loaders.computeIfAbsent(parentLoader, GeneratedClassLoader::new);
+        final GeneratedClassLoader loader = getLoader(parentLoader);
         synchronized (loader.getClassLoadingLock(name)) {
             if (loader.hasClass(name)) {
                 throw new IllegalStateException(name + " has already been defined! This should not happen.");
@@ -29,6 +107,16 @@ final class GeneratedClassDefiner {
         }
     }
 
+    private synchronized GeneratedClassLoader getLoader(ClassLoader parentLoader) {
+        WeakReference<GeneratedClassLoader> reference = loaders.get(parentLoader);
+        GeneratedClassLoader loader = reference == null ? null : reference.get();
+        if (loader == null) {
+            loader = new GeneratedClassLoader(parentLoader);
+            loaders.put(parentLoader, new WeakReference<>(loader));
+        }
+        return loader;
+    }
+
     private static class GeneratedClassLoader extends ClassLoader {
 
         protected GeneratedClassLoader(final ClassLoader parent) {
@@ -50,12 +138,7 @@ final class GeneratedClassDefiner {
 
         public boolean hasClass(final String name) {
             synchronized (getClassLoadingLock(name)) {
-                try {
-                    Class.forName(name);
-                    return true;
-                } catch (ClassNotFoundException e) {
-                    return false;
-                }
+                return findLoadedClass(name) != null;
             }
         }
 
@@ -63,4 +146,26 @@ final class GeneratedClassDefiner {
             ClassLoader.registerAsParallelCapable();
         }
     }
+
+    static {
+        MethodHandle privateLookupIn = null, hasFullPrivilegeAccess = null, defineHiddenClass = null;
+        Object options = null;
+        try {
+            Class<?> optionType = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            privateLookupIn = MethodHandles.publicLookup().findStatic(MethodHandles.class, "privateLookupIn",
+                    MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class));
+            hasFullPrivilegeAccess = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "hasFullPrivilegeAccess",
+                    MethodType.methodType(boolean.class));
+            defineHiddenClass = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineHiddenClass",
+                    MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class, Array.newInstance(optionType, 0).getClass()))
+                    .asFixedArity();
+            options = Array.newInstance(optionType, 0);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            defineHiddenClass = null; // hidden classes are not supported
+        }
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+        HAS_FULL_PRIVILEGE_ACCESS = hasFullPrivilegeAccess;
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        NO_CLASS_OPTIONS = options;
+    }
 }
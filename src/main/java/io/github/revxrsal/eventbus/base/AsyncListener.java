@@ -0,0 +1,67 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link EventListener} that hands every event over to another listener
+ * on an executor, so that the posting thread does not wait for it.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class AsyncListener implements EventListener<Object> {
+
+    private final EventListener target; // keep ungenerified
+    private final Executor executor;
+    private final EventExceptionHandler exceptionHandler;
+    private volatile Subscription subscription;
+
+    public AsyncListener(EventListener target, Executor executor, EventExceptionHandler exceptionHandler) {
+        this.target = target;
+        this.executor = executor;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Sets the subscription of this listener, which is passed to the exception
+     * handler when the listener fails on the executor.
+     *
+     * @param subscription The subscription of this listener
+     */
+    void bind(@NotNull Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    /**
+     * Returns the listener that events are handed over to
+     *
+     * @return The target listener
+     */
+    public EventListener<?> getTarget() {
+        return target;
+    }
+
+    @Override public void handle(@NotNull Object event) {
+        executor.execute(() -> {
+            try {
+                target.handle(event);
+            } catch (Throwable throwable) {
+                exceptionHandler.handleException(subscription, event, throwable);
+            }
+        });
+    }
+
+    /**
+     * Returns the listener that the given listener hands events over to, or
+     * the listener itself if it is not asynchronous.
+     *
+     * @param listener The listener
+     * @return The target listener
+     */
+    public static EventListener<?> unwrap(@NotNull EventListener<?> listener) {
+        return listener instanceof AsyncListener ? ((AsyncListener) listener).target : listener;
+    }
+}
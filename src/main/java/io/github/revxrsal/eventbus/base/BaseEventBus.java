@@ -2,59 +2,194 @@ package io.github.revxrsal.eventbus.base;
 
 import io.github.revxrsal.eventbus.EventListener;
 import io.github.revxrsal.eventbus.*;
+import io.github.revxrsal.eventbus.gen.Index;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
-import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 /**
  * A base implementation of {@link EventBus}.
  */
 public abstract class BaseEventBus implements EventBus {
 
-    protected final Set<Subscription> subscriptions = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
     protected final EventExceptionHandler exceptionHandler;
     protected final Executor executor;
     protected final List<Class<? extends Annotation>> annotations;
     protected final boolean hierarchicalInvocation;
+    protected final @Nullable ForkJoinPool fanOutPool;
+    protected final Executor asyncExecutor;
+    final SubscriptionIndex index;
+    /**
+     * A read-only view of all the subscriptions of this bus. Its iterators
+     * walk a snapshot of the subscriptions taken when they are created.
+     */
+    protected final Set<Subscription> subscriptions;
+    private final AtomicReference<Runnable> shutdown = new AtomicReference<>(); // stops the threads created by the builder
+    private final Set<BatchingListener> batchingListeners = ConcurrentHashMap.newKeySet(); // flushed once unregistered
+    private final StickyEvents stickyEvents = new StickyEvents();
+    private final ClassValue<ListenerDescriptor[]> listenerDescriptors = new ClassValue<ListenerDescriptor[]>() {
+        @Override protected ListenerDescriptor[] computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
 
     public BaseEventBus(EventExceptionHandler exceptionHandler,
                         Executor executor,
                         List<Class<? extends Annotation>> annotations,
                         boolean hierarchicalInvocation) {
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, null);
+    }
+
+    public BaseEventBus(EventExceptionHandler exceptionHandler,
+                        Executor executor,
+                        List<Class<? extends Annotation>> annotations,
+                        boolean hierarchicalInvocation,
+                        @Nullable ForkJoinPool fanOutPool) {
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, ForkJoinPool.commonPool());
+    }
+
+    public BaseEventBus(EventExceptionHandler exceptionHandler,
+                        Executor executor,
+                        List<Class<? extends Annotation>> annotations,
+                        boolean hierarchicalInvocation,
+                        @Nullable ForkJoinPool fanOutPool,
+                        Executor asyncExecutor) {
         this.exceptionHandler = exceptionHandler;
         this.executor = executor;
         this.annotations = annotations;
         this.hierarchicalInvocation = hierarchicalInvocation;
+        this.fanOutPool = fanOutPool;
+        this.asyncExecutor = asyncExecutor;
+        this.index = new SubscriptionIndex(hierarchicalInvocation);
+        this.subscriptions = index.view();
     }
 
     @Override public <T> CompletableFuture<PostResult<T>> publish(@NotNull T event) {
-        return supplyAsync(() -> {
+        return async(event, () -> {
+            if (fanOutPool != null)
+                return publishParallel(event);
             Map<Subscription, Long> executionTimes = new HashMap<>();
             int failed = 0, success = 0;
-            for (Subscription subscription : subscriptions) {
-                if (subscription.shouldInvoke(hierarchicalInvocation, event.getClass())) {
-                    try {
-                        long time = System.currentTimeMillis();
-                        subscription.getListener().handle(event);
-                        executionTimes.put(subscription, System.currentTimeMillis() - time);
-                        success++;
-                    } catch (Throwable throwable) {
-                        failed++;
-                        exceptionHandler.handleException(subscription, event, throwable);
-                    }
+            for (Subscription subscription : index.getWithRouted(event)) {
+                if (subscription.isSkipped(event)) continue;
+                try {
+                    if (!subscription.accepts(event)) continue;
+                    long time = System.currentTimeMillis();
+                    subscription.getListener().handle(event);
+                    executionTimes.put(subscription, System.currentTimeMillis() - time);
+                    success++;
+                } catch (Throwable throwable) {
+                    failed++;
+                    exceptionHandler.handleException(subscription, event, throwable);
                 }
             }
             return new BasicMeasuredPostResult<>(event, success, failed, Collections.unmodifiableMap(executionTimes));
-        }, executor);
+        });
+    }
+
+    /**
+     * Runs the given task on the executor. If the executor rejects the
+     * task, the returned future is failed instead of throwing. If the task
+     * is dropped by a bounded dispatch queue, the future is cancelled.
+     *
+     * @param event The dispatched event
+     * @param task  Task to run
+     * @return The task future
+     */
+    private CompletableFuture<Void> async(@Nullable Object event, @NotNull Runnable task) {
+        return async(event, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Supplies the result of the given task on the executor. If the executor
+     * rejects the task, the returned future is failed instead of throwing. If
+     * the task is dropped by a bounded dispatch queue, the future is cancelled.
+     *
+     * @param event The dispatched event
+     * @param task  Task to run
+     * @return The task future
+     */
+    private <U> CompletableFuture<U> async(@Nullable Object event, @NotNull Supplier<U> task) {
+        CompletableFuture<U> future = new CompletableFuture<>();
+        try {
+            executor.execute(new DispatchTask<>(future, task, event));
+            return future;
+        } catch (RejectedExecutionException e) {
+            return rejected(e);
+        }
+    }
+
+    private static <U> CompletableFuture<U> rejected(@NotNull RejectedExecutionException e) {
+        CompletableFuture<U> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Invokes all the subscriptions of the given event in parallel on the
+     * fan-out pool, and waits for them to finish.
+     *
+     * @param event Event to dispatch
+     * @return The post result
+     */
+    @SuppressWarnings("unchecked")
+    private <T> PostResult<T> publishParallel(@NotNull T event) {
+        Map<Subscription, Long> executionTimes = new ConcurrentHashMap<>();
+        AtomicInteger failed = new AtomicInteger(), success = new AtomicInteger();
+        fanOut(event, subscription -> {
+            if (subscription.isSkipped(event)) return;
+            try {
+                if (!subscription.accepts(event)) return;
+                long time = System.currentTimeMillis();
+                subscription.getListener().handle(event);
+                executionTimes.put(subscription, System.currentTimeMillis() - time);
+                success.incrementAndGet();
+            } catch (Throwable throwable) {
+                failed.incrementAndGet();
+                exceptionHandler.handleException(subscription, event, throwable);
+            }
+        });
+        return new BasicMeasuredPostResult<>(event, success.get(), failed.get(), Collections.unmodifiableMap(executionTimes));
+    }
+
+    /**
+     * Invokes all the subscriptions of the given event in parallel on the
+     * fan-out pool, and waits for them to finish.
+     *
+     * @param event Event to dispatch
+     */
+    private void fanOut(@NotNull Object event) {
+        fanOut(event, subscription -> invoke(subscription, event));
+    }
+
+    private void fanOut(@NotNull Object event, @NotNull Consumer<Subscription> invoker) {
+        Subscription[] subscriptions = index.getWithRouted(event);
+        if (subscriptions.length == 1)
+            invoker.accept(subscriptions[0]);
+        else if (subscriptions.length > 1)
+            fanOutPool.invoke(new FanOutTask(subscriptions, 0, subscriptions.length, invoker));
     }
 
     @Override public <T> CompletableFuture<PostResult<T>> publish(@NotNull Class<T> event) {
@@ -78,17 +213,11 @@ public abstract class BaseEventBus implements EventBus {
     }
 
     @Override public <T> T submit(@NotNull T event) {
-        executor.execute(() -> {
-            for (Subscription subscription : subscriptions) {
-                if (subscription.shouldInvoke(hierarchicalInvocation, event.getClass())) {
-                    try {
-                        subscription.getListener().handle(event);
-                    } catch (Throwable throwable) {
-                        exceptionHandler.handleException(subscription, event, throwable);
-                    }
-                }
-            }
-        });
+        Runnable task = fanOutPool != null ? () -> fanOut(event) : () -> invokeAll(event);
+        executor.execute(new DispatchTask<>(new CompletableFuture<>(), () -> {
+            task.run();
+            return null;
+        }, event));
         return event;
     }
 
@@ -101,99 +230,630 @@ public abstract class BaseEventBus implements EventBus {
     }
 
     @Override public CompletableFuture<Void> post(@NotNull Object event) {
-        return runAsync(() -> {
-            for (Subscription subscription : subscriptions) {
-                if (subscription.shouldInvoke(hierarchicalInvocation, event.getClass())) {
-                    try {
-                        subscription.getListener().handle(event);
-                    } catch (Throwable throwable) {
-                        exceptionHandler.handleException(subscription, event, throwable);
-                    }
+        return async(event, fanOutPool != null ? () -> fanOut(event) : () -> invokeAll(event));
+    }
+
+    @Override public CompletableFuture<Void> postAll(@NotNull Collection<?> events) {
+        return postAll(events, false);
+    }
+
+    @Override public CompletableFuture<Void> postAll(@NotNull Collection<?> events, boolean listenerMajor) {
+        Object[] batch = events.toArray();
+        return async(batch.length == 0 ? null : batch[0], () -> invokeBatch(batch, listenerMajor));
+    }
+
+    @Override public <T> CompletableFuture<Void> postAll(@NotNull Class<T> eventType, @NotNull T[] events) {
+        return postAll(eventType, events, false);
+    }
+
+    @Override public <T> CompletableFuture<Void> postAll(@NotNull Class<T> eventType, @NotNull T[] events, boolean listenerMajor) {
+        Object[] batch = events.clone();
+        return async(batch.length == 0 ? null : batch[0], () -> invokeBatch(batch, listenerMajor));
+    }
+
+    /**
+     * Invokes the subscriptions of all the given events on the current thread,
+     * resolving the subscriptions once for every run of events of the same class.
+     *
+     * @param events        Events to dispatch
+     * @param listenerMajor Whether should each subscription be invoked for
+     *                      a whole run of events before the next one
+     */
+    private void invokeBatch(@NotNull Object[] events, boolean listenerMajor) {
+        int start = 0;
+        while (start < events.length) {
+            Class<?> eventClass = events[start].getClass();
+            int end = start + 1;
+            while (end < events.length && events[end].getClass() == eventClass) end++;
+            if (index.hasRoutes(eventClass)) {
+                invokeRoutedBatch(events, start, end, listenerMajor);
+            } else if (listenerMajor) {
+                Subscription[] subscriptions = getSubscriptions(eventClass);
+                for (Subscription subscription : subscriptions) {
+                    for (int i = start; i < end; i++) invoke(subscription, events[i]);
+                }
+            } else {
+                Subscription[] subscriptions = getSubscriptions(eventClass);
+                for (int i = start; i < end; i++) {
+                    for (Subscription subscription : subscriptions) invoke(subscription, events[i]);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Invokes the subscriptions of a run of events of a class that has routed
+     * subscriptions, which may differ from one event to another. In listener-major
+     * order, each subscription is invoked for the events it matches before
+     * the next one.
+     */
+    private void invokeRoutedBatch(@NotNull Object[] events, int start, int end, boolean listenerMajor) {
+        Subscription[][] perEvent = new Subscription[end - start][];
+        Subscription[] subscriptions = index.getWithRouted(events, start, end, perEvent);
+        if (!listenerMajor) {
+            for (int i = start; i < end; i++) invokeEach(perEvent[i - start], events[i]);
+            return;
+        }
+        int[] next = new int[perEvent.length]; // each event's subscriptions are ordered like all of them
+        for (Subscription subscription : subscriptions) {
+            for (int i = 0; i < perEvent.length; i++) {
+                if (next[i] < perEvent[i].length && perEvent[i][next[i]] == subscription) {
+                    invoke(subscription, events[start + i]);
+                    next[i]++;
                 }
             }
-        }, executor);
+        }
+    }
+
+    private void invoke(@NotNull Subscription subscription, @NotNull Object event) {
+        if (subscription.isSkipped(event)) return;
+        try {
+            if (subscription.accepts(event))
+                subscription.getListener().handle(event);
+        } catch (Throwable throwable) {
+            exceptionHandler.handleException(subscription, event, throwable);
+        }
+    }
+
+    @Override public <T> T dispatch(@NotNull T event) {
+        invokeAll(event);
+        return event;
+    }
+
+    @Override public CompletableFuture<Void> postSticky(@NotNull Object event) {
+        stickyEvents.put(event);
+        return post(event);
+    }
+
+    @Override public <T> @Nullable T getStickyEvent(@NotNull Class<T> eventType) {
+        return eventType.cast(stickyEvents.get(eventType));
+    }
+
+    @Override public <T> @Nullable T removeStickyEvent(@NotNull Class<T> eventType) {
+        return eventType.cast(stickyEvents.remove(eventType));
+    }
+
+    /**
+     * Posts the current sticky events to the given newly registered
+     * subscriptions that listen to them.
+     *
+     * @param created The registered subscriptions
+     */
+    private void deliverSticky(@NotNull List<Subscription> created) {
+        if (stickyEvents.isEmpty()) return;
+        Map<Object, List<Subscription>> receivers = new IdentityHashMap<>();
+        for (Subscription subscription : created) {
+            for (Object event : stickyEvents.getAssignableTo(subscription.getEventType())) {
+                if (!subscription.shouldInvoke(hierarchicalInvocation, event.getClass())) continue;
+                if (index.isRouted(subscription) && !contains(index.getRouted(event), subscription))
+                    continue;
+                receivers.computeIfAbsent(event, k -> new ArrayList<>()).add(subscription);
+            }
+        }
+        receivers.forEach((event, eventReceivers) -> {
+            eventReceivers.sort(Comparator.comparingInt(Subscription::getPriority).reversed());
+            Subscription[] sticky = eventReceivers.toArray(SubscriptionIndex.EMPTY);
+            async(event, () -> invokeEach(sticky, event));
+        });
+    }
+
+    private static boolean contains(@NotNull Subscription[] subscriptions, @NotNull Subscription subscription) {
+        for (Subscription candidate : subscriptions) {
+            if (candidate == subscription) return true;
+        }
+        return false;
+    }
+
+    @Override public CompletableFuture<Void> postTo(@NotNull Object listener, @NotNull Object event) {
+        return async(event, () -> invokeEach(index.getByInstance(listener, event.getClass()), event));
+    }
+
+    @Override public <T> T dispatchTo(@NotNull Object listener, @NotNull T event) {
+        invokeEach(index.getByInstance(listener, event.getClass()), event);
+        return event;
+    }
+
+    @Override public CompletableFuture<Void> postToNamed(@NotNull String subscriptionName, @NotNull Object event) {
+        return async(event, () -> invokeEach(index.getByName(subscriptionName, event.getClass()), event));
+    }
+
+    @Override public <T> T dispatchToNamed(@NotNull String subscriptionName, @NotNull T event) {
+        invokeEach(index.getByName(subscriptionName, event.getClass()), event);
+        return event;
+    }
+
+    @Override public <R> CompletableFuture<R> ask(@NotNull Object event, @NotNull Collector<Object, ?, R> collector) {
+        Objects.requireNonNull(collector, "collector");
+        return async(event, () -> collect(event, collector));
+    }
+
+    /**
+     * Tests whether this bus dispatches events asynchronously, which is the
+     * case for any executor other than the default one, which runs tasks on
+     * the posting thread.
+     *
+     * @return True if the bus is asynchronous
+     */
+    private boolean isAsynchronous() {
+        return executor != SimpleEventBusBuilder.DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Gathers the responses of all the subscriptions of the given event with
+     * the given collector. Responses are gathered in parallel on the fan-out
+     * pool if there is one, or if this bus is {@link #isAsynchronous() asynchronous},
+     * on the async executor if it is a fork-join pool, or on the common pool
+     * otherwise.
+     */
+    private <A, R> R collect(@NotNull Object event, @NotNull Collector<Object, A, R> collector) {
+        Subscription[] subscriptions = index.getWithRouted(event);
+        ForkJoinPool pool = fanOutPool;
+        if (pool == null && isAsynchronous())
+            pool = asyncExecutor instanceof ForkJoinPool ? (ForkJoinPool) asyncExecutor : ForkJoinPool.commonPool();
+        A container;
+        if (pool != null && subscriptions.length > 1) {
+            container = pool.invoke(new ResponseTask<>(subscriptions, 0, subscriptions.length, collector,
+                    subscription -> respond(subscription, event)));
+        } else {
+            container = collector.supplier().get();
+            for (Subscription subscription : subscriptions) {
+                Object response = respond(subscription, event);
+                if (response != null) collector.accumulator().accept(container, response);
+            }
+        }
+        return collector.finisher().apply(container);
+    }
+
+    /**
+     * Invokes the given subscription, and returns its response if its
+     * listener is a {@link ResponseListener}.
+     */
+    @SuppressWarnings("unchecked")
+    private @Nullable Object respond(@NotNull Subscription subscription, @NotNull Object event) {
+        if (subscription.isSkipped(event)) return null;
+        try {
+            if (!subscription.accepts(event)) return null;
+            EventListener<Object> listener = subscription.getListener();
+            if (listener instanceof ResponseListener)
+                return ((ResponseListener<Object, ?>) listener).respond(event);
+            listener.handle(event);
+        } catch (Throwable throwable) {
+            exceptionHandler.handleException(subscription, event, throwable);
+        }
+        return null;
+    }
+
+    private void invokeEach(@NotNull Subscription[] subscriptions, @NotNull Object event) {
+        for (Subscription subscription : subscriptions) {
+            invoke(subscription, event);
+        }
+    }
+
+    /**
+     * Invokes all the subscriptions of the given event on the current thread
+     *
+     * @param event Event to dispatch
+     */
+    protected void invokeAll(@NotNull Object event) {
+        for (Subscription subscription : index.getWithRouted(event)) {
+            invoke(subscription, event);
+        }
     }
 
-    @Override public void register(@NotNull Object listenerInstance) {
+    /**
+     * Tests whether may routed subscriptions be invoked for the given event
+     * class. Their subscriptions depend on each event, so they cannot be
+     * dispatched through a dispatcher generated for the class.
+     *
+     * @param eventClass The concrete class of the dispatched event
+     * @return True if the event class has routed subscriptions
+     * @see EventBus#registerListener(Class, String, Object, EventListener)
+     */
+    protected final boolean hasRoutes(@NotNull Class<?> eventClass) {
+        return index.hasRoutes(eventClass);
+    }
+
+    /**
+     * Returns the subscriptions that should be invoked for the given
+     * event class. The returned array must not be modified, and is
+     * replaced by a new array whenever the subscriptions change.
+     *
+     * @param eventClass The concrete class of the dispatched event
+     * @return The subscriptions to invoke
+     */
+    protected @NotNull Subscription[] getSubscriptions(@NotNull Class<?> eventClass) {
+        return index.get(eventClass);
+    }
+
+    @Override public Registration register(@NotNull Object listenerInstance) {
         Class<?> cl = listenerInstance instanceof Class ? (Class<?>) listenerInstance : listenerInstance.getClass();
+        ListenerDescriptor[] descriptors = listenerDescriptors.get(cl);
+        if (listenerInstance == cl) {
+            for (ListenerDescriptor descriptor : descriptors) {
+                if (!descriptor.isStatic()) {
+                    throw new IllegalArgumentException(descriptor.getMemberName() + " in " + cl
+                            + " is non-static but provided listener was not an instance!");
+                }
+            }
+        }
+        List<Subscription> created = new ArrayList<>(descriptors.length);
+        for (ListenerDescriptor descriptor : descriptors) {
+            EventListener<?> listener = descriptor.createListener(listenerInstance);
+            if (descriptor.isAsync())
+                listener = new AsyncListener(listener, asyncExecutor, exceptionHandler);
+            Subscription subscription = new Subscription(listener, listenerInstance, descriptor.getName(),
+                    descriptor.getEventType(), descriptor.getPriority(), descriptor.receivesCancelled(), descriptor.getFilter());
+            bind(listener, subscription);
+            created.add(subscription);
+        }
+        index.add(created);
+        deliverSticky(created);
+        return new SubscriptionRegistration(this, created);
+    }
+
+    /**
+     * Passes the subscription of the given listener to the listener, and to
+     * the listener it wraps, if needed.
+     */
+    private void bind(@NotNull EventListener<?> listener, @NotNull Subscription subscription) {
+        if (listener instanceof AsyncListener) {
+            ((AsyncListener) listener).bind(subscription);
+            listener = ((AsyncListener) listener).getTarget();
+        }
+        if (listener instanceof BatchingListener) {
+            ((BatchingListener) listener).bind(subscription);
+            batchingListeners.add((BatchingListener) listener);
+        }
+    }
+
+    /**
+     * Removes the given subscriptions, and delivers the events buffered by
+     * their batching listeners.
+     *
+     * @param removed The subscriptions to remove
+     */
+    void remove(@NotNull Collection<Subscription> removed) {
+        index.remove(removed);
+        flushBatches(removed);
+    }
+
+    private void flushBatches(@NotNull Collection<Subscription> removed) {
+        if (batchingListeners.isEmpty()) return;
+        for (Subscription subscription : removed) {
+            EventListener<?> listener = AsyncListener.unwrap(subscription.getListener());
+            if (listener instanceof BatchingListener && batchingListeners.remove(listener))
+                ((BatchingListener) listener).close();
+        }
+    }
+
+    /**
+     * Scans the given listener class for methods and fields annotated with
+     * any of the scanned annotations, and validates them.
+     *
+     * @param cl Listener class to scan
+     * @return The listener descriptors of the class
+     */
+    private ListenerDescriptor[] scan(@NotNull Class<?> cl) {
+        List<ListenerDescriptor> descriptors = new ArrayList<>();
         for (Method method : cl.getDeclaredMethods()) {
-            if (annotations.stream().noneMatch(method::isAnnotationPresent)) continue;
+            if (!isAnnotated(method)) continue;
             if (method.getParameterCount() != 1) {
                 throw new IllegalArgumentException("Method " + method.getName() + " in " + cl
                         + " must only accept 1 parameter (Found: " + method.getParameterCount() + ")!");
             }
 
-            if (listenerInstance == cl && !Modifier.isStatic(method.getModifiers())) {
-                throw new IllegalArgumentException("Method " + method.getName() + " in " + cl
-                        + " is non-static but provided listener was not an instance!");
+            Batched batched = method.getAnnotation(Batched.class);
+            if (batched != null) {
+                descriptors.add(scanBatched(cl, method, batched));
+                continue;
             }
-
             Class<?> eventType = method.getParameterTypes()[0];
-            String name = String.format("%s.%s(%s)", cl.getName(), method.getName(), eventType.getSimpleName());
-            EventListener<?> listener = createEventListener(listenerInstance, method);
-
-            subscriptions.add(new Subscription(listener, listenerInstance, name, eventType));
+            String name = cl.getName() + "." + method.getName() + "(" + eventType.getSimpleName() + ")";
+            Function<Object, EventListener<?>> factory = method.getReturnType() == void.class
+                    ? createListenerFactory(method)
+                    : createResponseFactory(method);
+            descriptors.add(new ListenerDescriptor(name, eventType, "Method " + method.getName(),
+                    Modifier.isStatic(method.getModifiers()), method.getAnnotation(SubscribeEvent.class), factory));
         }
         for (Field field : cl.getDeclaredFields()) {
-            if (annotations.stream().noneMatch(field::isAnnotationPresent)) continue;
-            if (listenerInstance == cl && !Modifier.isStatic(field.getModifiers())) {
-                throw new IllegalArgumentException("Field " + field.getName() + " in " + cl
-                        + " is non-static but provided listener was not an instance!");
-            }
+            if (!isAnnotated(field)) continue;
             if (!EventListener.class.isAssignableFrom(field.getType())) {
                 throw new IllegalArgumentException("Field " + field.getName() + " in " + cl
                         + "is not of type " + EventListener.class.getName() + ".");
             }
+            Class<?> eventType;
             try {
-                Class<?> eventType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
-                String name = String.format("%s.%s(%s)", cl.getName(), field.getName(), eventType.getName());
-                if (!field.isAccessible())
-                    field.setAccessible(true);
-                EventListener<?> listener = (EventListener<?>) field.get(listenerInstance);
-                subscriptions.add(new Subscription(listener, listenerInstance, name, eventType));
+                eventType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
             } catch (ClassCastException e) {
                 throw new IllegalArgumentException("Could not evaluate event type from field " + field.getName() + " in "
                         + cl + ". Is it missing generics?");
-            } catch (IllegalAccessException e) {
-                throw new IllegalArgumentException("Could not reflectively get field " + field.getName() + " in " + cl + ". Maybe make it accessible?");
             }
+            String name = cl.getName() + "." + field.getName() + "(" + eventType.getName() + ")";
+            if (!field.isAccessible())
+                field.setAccessible(true);
+            descriptors.add(new ListenerDescriptor(name, eventType, "Field " + field.getName(),
+                    Modifier.isStatic(field.getModifiers()), field.getAnnotation(SubscribeEvent.class), instance -> {
+                try {
+                    return (EventListener<?>) field.get(instance);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException("Could not reflectively get field " + field.getName() + " in " + cl + ". Maybe make it accessible?");
+                }
+            }));
+        }
+        return descriptors.toArray(new ListenerDescriptor[0]);
+    }
+
+    /**
+     * Creates the descriptor of a {@link Batched} method, whose listeners
+     * buffer events and deliver them in batches.
+     */
+    private ListenerDescriptor scanBatched(@NotNull Class<?> cl, @NotNull Method method, @NotNull Batched batched) {
+        Class<?> parameterType = method.getParameterTypes()[0];
+        boolean array = parameterType.isArray();
+        Class<?> eventType;
+        if (array) {
+            eventType = parameterType.getComponentType();
+        } else if (parameterType == List.class) {
+            try {
+                eventType = (Class<?>) ((ParameterizedType) method.getGenericParameterTypes()[0]).getActualTypeArguments()[0];
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("Could not evaluate event type from batched method " + method.getName() + " in "
+                        + cl + ". Is it missing generics?");
+            }
+        } else {
+            throw new IllegalArgumentException("Batched method " + method.getName() + " in " + cl
+                    + " must accept a List or an array of events (Found: " + parameterType.getName() + ")!");
         }
+        String name = cl.getName() + "." + method.getName() + "(" + eventType.getSimpleName() + (array ? "[])" : " batch)");
+        Function<Object, EventListener<?>> factory = createListenerFactory(method);
+        return new ListenerDescriptor(name, eventType, "Method " + method.getName(), Modifier.isStatic(method.getModifiers()),
+                method.getAnnotation(SubscribeEvent.class), instance -> new BatchingListener(factory.apply(instance), eventType, array, batched.size(), batched.window(),
+                        asyncExecutor, exceptionHandler));
     }
 
-    @Override public <T> void registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener) {
-        subscriptions.add(new Subscription(listener, null, listener.getClass().getName(), eventType));
+    private boolean isAnnotated(@NotNull AnnotatedElement element) {
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (element.isAnnotationPresent(annotation)) return true;
+        }
+        return false;
     }
 
-    @SuppressWarnings("rawtypes")
-    @Override public <T> void registerListener(@NotNull EventListener<T> listener) {
-        try {
-            for (Type type : listener.getClass().getGenericInterfaces()) {
-                if (type.getTypeName().startsWith(EventListener.class.getName())) {
-                    Class eventType = type instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
-                    registerListener(eventType, listener);
-                }
-            }
-        } catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("Failed to evaluate event type from listener " + listener.getClass().getName() + ". Use EventBus#registerListener(Class, EventListener)");
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener) {
+        return registerListener(eventType, listener, 0, false);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener, boolean async) {
+        return registerListener(eventType, listener, 0, async);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull EventListener<T> listener, int priority, boolean async) {
+        return registerListener(listener.getClass().getName(), eventType, listener, priority, async, null);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull Predicate<? super T> filter, @NotNull EventListener<T> listener) {
+        return registerListener(listener.getClass().getName(), eventType, listener, 0, false, Objects.requireNonNull(filter, "filter"));
+    }
+
+    @Override public <T> Registration registerListener(@NotNull String name, @NotNull Class<T> eventType, @NotNull EventListener<T> listener) {
+        return registerListener(Objects.requireNonNull(name, "name"), eventType, listener, 0, false, null);
+    }
+
+    private <T> Registration registerListener(@NotNull String name, @NotNull Class<T> eventType, @NotNull EventListener<T> listener,
+                                              int priority, boolean async, @Nullable Predicate<? super T> filter) {
+        EventListener<?> registered = async ? new AsyncListener(listener, asyncExecutor, exceptionHandler) : listener;
+        Subscription subscription = new Subscription(registered, null, name, eventType, priority, false, filter);
+        bind(registered, subscription);
+        List<Subscription> created = Collections.singletonList(subscription);
+        index.add(created);
+        deliverSticky(created);
+        return new SubscriptionRegistration(this, created);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull String property,
+                                                       @NotNull Object value, @NotNull EventListener<T> listener) {
+        return registerListener(eventType, property, value, listener, 0);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull Class<T> eventType, @NotNull String property,
+                                                       @NotNull Object value, @NotNull EventListener<T> listener, int priority) {
+        Objects.requireNonNull(value, "value");
+        MethodHandle getter = INDEXED_PROPERTIES.get(eventType).get(property);
+        if (getter == null) {
+            throw new IllegalArgumentException("No property named '" + property + "' with an @Index getter in " + eventType.getName() + ".");
+        }
+        Object routed = routedValue(eventType, property, getter.type().returnType(), value);
+        Subscription subscription = new Subscription(listener, null, listener.getClass().getName()
+                + "[" + property + "=" + routed + "]", eventType, priority, false, null);
+        List<Subscription> created = Collections.singletonList(subscription);
+        index.addRouted(subscription, property, getter.asType(GETTER_TYPE), routed);
+        deliverSticky(created);
+        return new SubscriptionRegistration(this, created);
+    }
+
+    @Override public <T> Registration registerListener(@NotNull EventListener<T> listener) {
+        List<Subscription> created = new ArrayList<>();
+        for (Class<?> eventType : LISTENER_EVENT_TYPES.get(listener.getClass())) {
+            created.add(new Subscription(listener, null, listener.getClass().getName(), eventType));
         }
+        index.add(created);
+        deliverSticky(created);
+        return new SubscriptionRegistration(this, created);
     }
 
     @Override public void unregister(@NotNull Object listener) {
-        subscriptions.removeIf(s -> Objects.equals(s.getInstance(), listener));
+        flushBatches(index.removeInstance(listener));
     }
 
     @Override public <T> void unregister(@NotNull EventListener<T> listener) {
-        subscriptions.removeIf(s -> Objects.equals(s.getListener(), listener));
+        index.removeListener(listener);
     }
 
     @Override public Executor getExecutor() {
         return executor;
     }
 
+    /**
+     * Sets the action that stops the threads of the executor that was created
+     * for this event bus by its builder. It runs once, when this bus is closed.
+     *
+     * @param action The action
+     */
+    void onClose(@NotNull Runnable action) {
+        shutdown.set(action);
+    }
+
+    @Override public void close() {
+        for (BatchingListener listener : batchingListeners) {
+            if (batchingListeners.remove(listener)) listener.close();
+        }
+        Runnable action = shutdown.getAndSet(null);
+        if (action != null) action.run();
+    }
+
     @Override public EventExceptionHandler getEventExceptionHandler() {
         return exceptionHandler;
     }
 
     protected abstract <T> EventListener<T> createEventListener(@NotNull Object listenerInstnace, @NotNull Method method);
 
+    /**
+     * Creates a factory of listeners for the given method, which is invoked
+     * once for every registered instance. Implementations should do any
+     * expensive preparation of the method here rather than per instance.
+     *
+     * @param method The listener method
+     * @return The listener factory
+     */
+    protected Function<Object, EventListener<?>> createListenerFactory(@NotNull Method method) {
+        return instance -> createEventListener(instance, method);
+    }
+
+    /**
+     * Creates a factory of {@link ResponseListener}s for the given method,
+     * which returns a value. This invokes the method through a method handle
+     * by default.
+     *
+     * @param method The listener method
+     * @return The listener factory
+     * @see #ask(Object, Collector)
+     */
+    protected Function<Object, EventListener<?>> createResponseFactory(@NotNull Method method) {
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot make method " + method.getName() + " in " + method.getDeclaringClass() + " accessible reflectively. Maybe make it public?");
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            MethodHandle staticHandle = handle.asType(RESPONSE_TYPE);
+            return instance -> new MethodHandleResponder<>(staticHandle);
+        }
+        MethodHandle virtualHandle = handle;
+        return instance -> new MethodHandleResponder<>(virtualHandle.bindTo(instance).asType(RESPONSE_TYPE));
+    }
+
+    private static final MethodType RESPONSE_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Returns the given value as an instance of the wrapper type of the given
+     * property type, so that it can equal the values the getter returns.
+     * Integral values are converted to numeric property types they fit.
+     */
+    private static @NotNull Object routedValue(@NotNull Class<?> eventType, @NotNull String property,
+                                               @NotNull Class<?> propertyType, @NotNull Object value) {
+        Class<?> wrapper = MethodType.methodType(propertyType).wrap().returnType();
+        if (wrapper.isInstance(value))
+            return value;
+        if (isIntegral(value.getClass())) {
+            long number = ((Number) value).longValue();
+            if (wrapper == Long.class) return number;
+            if (wrapper == Integer.class && (int) number == number) return (int) number;
+            if (wrapper == Short.class && (short) number == number) return (short) number;
+            if (wrapper == Byte.class && (byte) number == number) return (byte) number;
+            if (wrapper == Double.class && (long) (double) number == number) return (double) number;
+            if (wrapper == Float.class && (long) (float) number == number) return (float) number;
+        }
+        throw new IllegalArgumentException("Cannot route property '" + property + "' of " + eventType.getName() + ", which is of type "
+                + propertyType.getName() + ", to " + value + " of type " + value.getClass().getName() + ".");
+    }
+
+    private static boolean isIntegral(@NotNull Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    /**
+     * The getters annotated with {@link Index} of event classes, keyed by
+     * their property names, as handles of their own types. Their return
+     * types are the types of the properties.
+     */
+    private static final ClassValue<Map<String, MethodHandle>> INDEXED_PROPERTIES = new ClassValue<Map<String, MethodHandle>>() {
+        @Override protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            Map<String, MethodHandle> getters = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                if (!method.isAnnotationPresent(Index.class) || method.getParameterCount() != 0 || method.getReturnType() == void.class)
+                    continue;
+                try {
+                    method.setAccessible(true);
+                    getters.put(propertyName(method.getName()), MethodHandles.lookup().unreflect(method));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new IllegalArgumentException("Could not access getter " + method.getName() + " in " + type.getName()
+                            + ". Maybe make it public?", e);
+                }
+            }
+            return getters;
+        }
+    };
+
+    private static String propertyName(String getterName) {
+        if (getterName.length() > 3 && getterName.startsWith("get"))
+            return Character.toLowerCase(getterName.charAt(3)) + getterName.substring(4);
+        if (getterName.length() > 2 && getterName.startsWith("is"))
+            return Character.toLowerCase(getterName.charAt(2)) + getterName.substring(3);
+        return getterName;
+    }
+
+    /**
+     * The event types of {@link EventListener} implementations, as resolved
+     * from their generic interfaces.
+     */
+    private static final ClassValue<Class<?>[]> LISTENER_EVENT_TYPES = new ClassValue<Class<?>[]>() {
+        @Override protected Class<?>[] computeValue(Class<?> type) {
+            List<Class<?>> eventTypes = new ArrayList<>();
+            try {
+                for (Type genericType : type.getGenericInterfaces()) {
+                    if (genericType.getTypeName().startsWith(EventListener.class.getName())) {
+                        eventTypes.add(genericType instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) genericType).getActualTypeArguments()[0] : Object.class);
+                    }
+                }
+            } catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Failed to evaluate event type from listener " + type.getName() + ". Use EventBus#registerListener(Class, EventListener)");
+            }
+            return eventTypes.toArray(new Class<?>[0]);
+        }
+    };
+
 }
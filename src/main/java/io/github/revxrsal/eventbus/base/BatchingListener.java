@@ -0,0 +1,169 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link EventListener} that buffers events and delivers them in batches
+ * to a listener accepting a {@link List} or an array of events.
+ * <p>
+ * Batches are queued and delivered by one thread at a time, in the order
+ * they were taken: full batches by the posting thread, and batches flushed
+ * by the time window on the given executor, so that the shared flusher
+ * thread never waits for a listener. Whichever thread finds no delivery in
+ * progress delivers the queued batches, including those queued meanwhile.
+ * <p>
+ * Once {@link #close() closed}, the buffered events are delivered, and later
+ * events are no longer buffered.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class BatchingListener implements EventListener<Object> {
+
+    private final EventListener target; // keep ungenerified
+    private final Class<?> eventType;
+    private final boolean array;
+    private final int size;
+    private final long window;
+    private final Executor executor;
+    private final EventExceptionHandler exceptionHandler;
+    private volatile Subscription subscription;
+
+    private List<Object> buffer; // guarded by this
+    private ScheduledFuture<?> scheduledFlush; // guarded by this
+    private final Deque<List<Object>> pending = new ArrayDeque<>(); // guarded by this
+    private boolean delivering; // guarded by this
+    private boolean closed; // guarded by this
+
+    public BatchingListener(EventListener target, Class<?> eventType, boolean array, int size, long window,
+                            Executor executor, EventExceptionHandler exceptionHandler) {
+        this.target = target;
+        this.eventType = eventType;
+        this.array = array;
+        this.size = Math.max(size, 1);
+        this.window = window;
+        this.executor = executor;
+        this.exceptionHandler = exceptionHandler;
+        this.buffer = new ArrayList<>(this.size);
+    }
+
+    /**
+     * Sets the subscription of this listener, which is passed to the exception
+     * handler when a batch fails.
+     *
+     * @param subscription The subscription of this listener
+     */
+    void bind(@NotNull Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override public void handle(@NotNull Object event) {
+        synchronized (this) {
+            buffer.add(event);
+            if (!closed && buffer.size() < size) {
+                if (buffer.size() == 1 && window > 0)
+                    scheduledFlush = Flusher.FLUSHER.schedule(this::flushWindow, window, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (!enqueue(take())) return;
+        }
+        deliverPending();
+    }
+
+    /**
+     * Cancels the time window of the buffered events, and delivers them on
+     * the calling thread, unless another thread is delivering batches of this
+     * listener already. Later events are delivered right away, in batches of
+     * one. Calling this more than once has no effect.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            List<Object> batch = take();
+            if (batch.isEmpty() || !enqueue(batch)) return;
+        }
+        deliverPending();
+    }
+
+    private void flushWindow() {
+        synchronized (this) {
+            scheduledFlush = null;
+            if (buffer.isEmpty() || !enqueue(take())) return;
+        }
+        try {
+            executor.execute(this::deliverPending);
+        } catch (RejectedExecutionException e) {
+            deliverPending();
+        }
+    }
+
+    private List<Object> take() {
+        List<Object> batch = buffer;
+        buffer = new ArrayList<>(size);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Queues the given batch, and returns whether the caller must deliver the
+     * queued batches, as no other thread is delivering them.
+     */
+    private boolean enqueue(List<Object> batch) {
+        pending.add(batch);
+        if (delivering) return false;
+        delivering = true;
+        return true;
+    }
+
+    private void deliverPending() {
+        while (true) {
+            List<Object> batch;
+            synchronized (this) {
+                batch = pending.poll();
+                if (batch == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                deliver(batch);
+            } catch (Throwable throwable) {
+                exceptionHandler.handleException(subscription, batch, throwable);
+            }
+        }
+    }
+
+    private void deliver(@NotNull List<Object> batch) throws Throwable {
+        if (array)
+            target.handle(batch.toArray((Object[]) Array.newInstance(eventType, batch.size())));
+        else
+            target.handle(Collections.unmodifiableList(batch));
+    }
+
+    private static final class Flusher {
+
+        private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EventBus Batch Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
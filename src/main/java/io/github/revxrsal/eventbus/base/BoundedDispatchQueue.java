@@ -0,0 +1,131 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.DispatchQueue;
+import io.github.revxrsal.eventbus.OverflowPolicy;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link DispatchQueue} that holds pending tasks in a bounded queue, and
+ * hands one drain task to the underlying executor for every queued task.
+ * <p>
+ * A drain task runs whichever task is at the head of the queue when it
+ * starts. Replacing the oldest task does not submit an extra drain task,
+ * so the underlying executor never holds more drain tasks than the queue
+ * can hold.
+ * <p>
+ * The futures of dropped dispatches are cancelled. If the underlying
+ * executor rejects the drain task of a dispatch, the dispatch is taken back
+ * out of the queue, so that it never runs after its future was failed.
+ * <p>
+ * As drain tasks do not run the task they were submitted for, the
+ * underlying executor must be asynchronous: with an executor that runs tasks
+ * on the calling thread, a publisher would dispatch the events of other
+ * publishers.
+ */
+final class BoundedDispatchQueue implements DispatchQueue {
+
+    private final Executor executor;
+    private final BlockingQueue<Runnable> queue;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final LongAdder dropped = new LongAdder();
+    private final Runnable drain = this::drain;
+
+    public BoundedDispatchQueue(@NotNull Executor executor, int capacity, @NotNull OverflowPolicy policy) {
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    @Override public void execute(@NotNull Runnable task) {
+        if (queue.offer(task)) {
+            schedule(task);
+            return;
+        }
+        switch (policy) {
+            case BLOCK: {
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for room in the dispatch queue", e);
+                }
+                schedule(task);
+                return;
+            }
+            case DROP_NEWEST: {
+                dropped.increment();
+                DispatchTask.dropped(task);
+                return;
+            }
+            case DROP_OLDEST: {
+                boolean replaced = false;
+                while (!queue.offer(task)) {
+                    Runnable oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.increment();
+                        DispatchTask.dropped(oldest);
+                        replaced = true;
+                    }
+                }
+                if (!replaced) // otherwise, the drain task of the dropped task runs this one
+                    schedule(task);
+                return;
+            }
+            case CALLER_RUNS: {
+                task.run();
+                return;
+            }
+            default: {
+                dropped.increment();
+                throw new RejectedExecutionException("Dispatch queue is full (capacity: " + capacity + ")");
+            }
+        }
+    }
+
+    /**
+     * Submits a drain task for the given queued task. If the executor rejects
+     * it, the task is taken out of the queue and the rejection is rethrown.
+     * If a drain task of another dispatch took the task already, that other
+     * dispatch is left without a drain task, and is failed instead.
+     */
+    private void schedule(@NotNull Runnable task) {
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            if (queue.remove(task))
+                throw e;
+            Runnable orphan = queue.poll();
+            if (orphan instanceof DispatchTask)
+                ((DispatchTask<?>) orphan).fail(e);
+        }
+    }
+
+    private void drain() {
+        Runnable task = queue.poll();
+        if (task != null) task.run();
+    }
+
+    @Override public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override public int getCapacity() {
+        return capacity;
+    }
+
+    @Override public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.revxrsal.eventbus.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A task that completes a future with the result of a dispatch. Unlike the
+ * tasks of {@link CompletableFuture#supplyAsync(Supplier)}, its future can be
+ * cancelled when the task is dropped before running, and it exposes the
+ * dispatched event to the executor.
+ */
+final class DispatchTask<U> implements Runnable {
+
+    private final CompletableFuture<U> future;
+    private final Supplier<U> task;
+    private final @Nullable Object event;
+
+    public DispatchTask(CompletableFuture<U> future, Supplier<U> task, @Nullable Object event) {
+        this.future = future;
+        this.task = task;
+        this.event = event;
+    }
+
+    /**
+     * Returns the event dispatched by this task. This is the first
+     * event of batches, and null for empty batches.
+     *
+     * @return The dispatched event
+     */
+    public @Nullable Object getEvent() {
+        return event;
+    }
+
+    @Override public void run() {
+        if (future.isDone()) return;
+        try {
+            future.complete(task.get());
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Cancels the future of this task, as the task will never run.
+     */
+    public void drop() {
+        future.cancel(false);
+    }
+
+    /**
+     * Fails the future of this task with the given throwable, as the task
+     * cannot be scheduled and will never run.
+     *
+     * @param throwable The reason the task cannot run
+     */
+    public void fail(@NotNull Throwable throwable) {
+        future.completeExceptionally(throwable);
+    }
+
+    /**
+     * Cancels the future of the given task if it is a dispatch task.
+     *
+     * @param task The dropped task
+     */
+    public static void dropped(@NotNull Runnable task) {
+        if (task instanceof DispatchTask)
+            ((DispatchTask<?>) task).drop();
+    }
+}
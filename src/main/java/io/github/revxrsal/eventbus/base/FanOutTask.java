@@ -0,0 +1,35 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.Subscription;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * A task that invokes a range of subscriptions in parallel, by recursively
+ * splitting the range in halves until each task invokes a single subscription.
+ */
+@SuppressWarnings("serial")
+final class FanOutTask extends RecursiveAction {
+
+    private final Subscription[] subscriptions;
+    private final int from, to;
+    private final Consumer<Subscription> invoker;
+
+    public FanOutTask(Subscription[] subscriptions, int from, int to, Consumer<Subscription> invoker) {
+        this.subscriptions = subscriptions;
+        this.from = from;
+        this.to = to;
+        this.invoker = invoker;
+    }
+
+    @Override protected void compute() {
+        if (to - from <= 1) {
+            if (to > from) invoker.accept(subscriptions[from]);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new FanOutTask(subscriptions, from, middle, invoker),
+                new FanOutTask(subscriptions, middle, to, invoker));
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+class LambdaEventBus extends BaseEventBus {
+
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(EventListener.class, Object.class);
+    private static final MethodType HANDLE_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodHandle PRIVATE_LOOKUP_IN = findPrivateLookupIn();
+    private static final MethodHandle HAS_FULL_PRIVILEGE_ACCESS = findHasFullPrivilegeAccess();
+
+    public LambdaEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation);
+    }
+
+    public LambdaEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, @Nullable ForkJoinPool fanOutPool) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool);
+    }
+
+    public LambdaEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, @Nullable ForkJoinPool fanOutPool, Executor asyncExecutor) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override protected <T> EventListener<T> createEventListener(@NotNull Object listenerInstnace, @NotNull Method method) {
+        return (EventListener<T>) createListenerFactory(method).apply(listenerInstnace);
+    }
+
+    @Override protected Function<Object, EventListener<?>> createListenerFactory(@NotNull Method method) {
+        MethodHandles.Lookup lookup = lookupIn(method.getDeclaringClass());
+        if (lookup == null) {
+            // lambdas can only be spun with full privilege access to the listener class
+            return MethodHandlesEventBus.listenerFactory(method);
+        }
+        MethodHandle factory;
+        try {
+            MethodHandle implementation = lookup.unreflect(method);
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "handle",
+                    isStatic ? MethodType.methodType(EventListener.class) : MethodType.methodType(EventListener.class, method.getDeclaringClass()),
+                    HANDLE_TYPE,
+                    implementation,
+                    MethodType.methodType(void.class, method.getParameterTypes()[0])
+            );
+            factory = callSite.getTarget();
+            if (isStatic) {
+                EventListener<?> listener = (EventListener<?>) factory.invoke();
+                return instance -> listener;
+            }
+            factory = factory.asType(FACTORY_TYPE);
+        } catch (LambdaConversionException | IllegalAccessException e) {
+            return MethodHandlesEventBus.listenerFactory(method);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot create a lambda for method " + method.getName() + " in " + method.getDeclaringClass() + ". Maybe make it public?", t);
+        }
+        MethodHandle listenerFactory = factory;
+        return instance -> {
+            try {
+                return (EventListener<?>) listenerFactory.invokeExact(instance);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to create a listener for method " + method.getName() + " in " + method.getDeclaringClass(), t);
+            }
+        };
+    }
+
+    /**
+     * Returns a lookup that can spin lambdas for methods of the given class,
+     * or null if there is none. On Java 9+, this is a lookup with full privilege
+     * access to the class, which is only available if the class is in the same
+     * module as this class. On Java 8, lambdas are defined next to this class,
+     * so this is its own lookup if its class loader can see the given class.
+     */
+    private static MethodHandles.@Nullable Lookup lookupIn(@NotNull Class<?> type) {
+        if (PRIVATE_LOOKUP_IN == null)
+            return isVisible(type) ? MethodHandles.lookup() : null;
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invokeExact(type, MethodHandles.lookup());
+        } catch (Throwable t) {
+            return null;
+        }
+        return hasFullPrivilegeAccess(lookup) ? lookup : null;
+    }
+
+    private static boolean hasFullPrivilegeAccess(@NotNull MethodHandles.Lookup lookup) {
+        if (HAS_FULL_PRIVILEGE_ACCESS == null)
+            return (lookup.lookupModes() & MethodHandles.Lookup.PRIVATE) != 0; // Java 9 - 13
+        try {
+            return (boolean) HAS_FULL_PRIVILEGE_ACCESS.invokeExact(lookup);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    private static boolean isVisible(@NotNull Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, LambdaEventBus.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle findHasFullPrivilegeAccess() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "hasFullPrivilegeAccess",
+                    MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null; // Java 8 - 13
+        }
+    }
+
+    private static MethodHandle findPrivateLookupIn() {
+        try {
+            return MethodHandles.publicLookup().findStatic(MethodHandles.class, "privateLookupIn",
+                    MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null; // Java 8
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A pre-validated listener member (method or field) of a listener class,
+ * which creates the {@link EventListener} for every registered instance.
+ */
+final class ListenerDescriptor {
+
+    private final String name;
+    private final Class<?> eventType;
+    private final String memberName;
+    private final boolean isStatic;
+    private final @Nullable SubscribeEvent options;
+    private final @Nullable Predicate<Object> filter;
+    private final Function<Object, EventListener<?>> factory;
+
+    public ListenerDescriptor(String name, Class<?> eventType, String memberName, boolean isStatic,
+                              @Nullable SubscribeEvent options, Function<Object, EventListener<?>> factory) {
+        this.name = name;
+        this.eventType = eventType;
+        this.memberName = memberName;
+        this.isStatic = isStatic;
+        this.options = options;
+        this.filter = options == null ? null : createFilter(options.filter());
+        this.factory = factory;
+    }
+
+    /**
+     * Creates the listener for the given instance.
+     *
+     * @param instance The listener instance, or the listener class if
+     *                 the listener is static
+     * @return The created listener
+     */
+    public EventListener<?> createListener(@NotNull Object instance) {
+        return factory.apply(instance);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public String getMemberName() {
+        return memberName;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public boolean isAsync() {
+        return options != null && options.async();
+    }
+
+    public int getPriority() {
+        return options == null ? 0 : options.priority();
+    }
+
+    public boolean receivesCancelled() {
+        return options != null && options.receiveCancelled();
+    }
+
+    public @Nullable Predicate<Object> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Instantiates the given filter classes, and combines them into
+     * a predicate that accepts events accepted by all of them.
+     *
+     * @param filterTypes The filter classes
+     * @return The combined filter, or null if there are no filters
+     */
+    @SuppressWarnings("unchecked")
+    private @Nullable Predicate<Object> createFilter(@NotNull Class<? extends Predicate<?>>[] filterTypes) {
+        Predicate<Object> filter = null;
+        for (Class<? extends Predicate<?>> filterType : filterTypes) {
+            Predicate<Object> created;
+            try {
+                Constructor<? extends Predicate<?>> constructor = filterType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                created = (Predicate<Object>) constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("Could not create filter " + filterType.getName() + " of " + memberName
+                        + ". Does it have a no-arg constructor?", e);
+            }
+            filter = filter == null ? created : filter.and(created);
+        }
+        return filter;
+    }
+}
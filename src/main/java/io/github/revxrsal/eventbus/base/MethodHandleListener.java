@@ -0,0 +1,28 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An {@link EventListener} that invokes a method handle of type
+ * {@code (Object)void} exactly, and exposes the handle so that it can
+ * be combined into dispatch handles.
+ */
+final class MethodHandleListener<T> implements EventListener<T> {
+
+    private final MethodHandle handle;
+
+    public MethodHandleListener(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    @Override public void handle(@NotNull T event) throws Throwable {
+        handle.invokeExact((Object) event);
+    }
+
+    public MethodHandle getHandle() {
+        return handle;
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.ResponseListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A {@link ResponseListener} that invokes a method handle of type
+ * {@code (Object)Object} exactly.
+ */
+final class MethodHandleResponder<T> implements ResponseListener<T, Object> {
+
+    private final MethodHandle handle;
+
+    public MethodHandleResponder(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    @Override public Object respond(@NotNull T event) throws Throwable {
+        return handle.invokeExact((Object) event);
+    }
+}
@@ -1,33 +1,176 @@
 package io.github.revxrsal.eventbus.base;
 
+import io.github.revxrsal.eventbus.Cancellable;
 import io.github.revxrsal.eventbus.EventExceptionHandler;
 import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 class MethodHandlesEventBus extends BaseEventBus {
 
+    private static final MethodType LISTENER_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodHandle HANDLE;
+    private static final MethodHandle HANDLE_EXCEPTION;
+    private static final MethodHandle IS_CANCELLED;
+    private static final MethodHandle TEST;
+    private static final MethodHandle NO_OP = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null).asType(MethodType.methodType(void.class)), 0, Object.class);
+
+    private final boolean linkCallSites;
+    private final ClassValue<AtomicReference<DispatchEntry>> dispatchers = new ClassValue<AtomicReference<DispatchEntry>>() {
+        @Override protected AtomicReference<DispatchEntry> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
     public MethodHandlesEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation) {
-        super(exceptionHandler, executor, annotations, hierarchicalInvocation);
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, false, null);
+    }
+
+    public MethodHandlesEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, boolean linkCallSites, @Nullable ForkJoinPool fanOutPool) {
+        this(exceptionHandler, executor, annotations, hierarchicalInvocation, linkCallSites, fanOutPool, ForkJoinPool.commonPool());
+    }
+
+    public MethodHandlesEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, boolean linkCallSites, @Nullable ForkJoinPool fanOutPool, Executor asyncExecutor) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+        this.linkCallSites = linkCallSites;
     }
 
     @Override protected <T> EventListener<T> createEventListener(@NotNull Object listenerInstnace, @NotNull Method method) {
-        MethodHandle handle;
+        MethodHandle handle = unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) handle = handle.bindTo(listenerInstnace);
+        return new MethodHandleListener<>(handle.asType(LISTENER_TYPE));
+    }
+
+    @Override protected Function<Object, EventListener<?>> createListenerFactory(@NotNull Method method) {
+        return listenerFactory(method);
+    }
+
+    /**
+     * Creates a factory of {@link MethodHandleListener}s for the given method.
+     *
+     * @param method The listener method
+     * @return The listener factory
+     */
+    static Function<Object, EventListener<?>> listenerFactory(@NotNull Method method) {
+        MethodHandle handle = unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            MethodHandle staticHandle = handle.asType(LISTENER_TYPE);
+            return instance -> new MethodHandleListener<>(staticHandle);
+        }
+        return instance -> new MethodHandleListener<>(handle.bindTo(instance).asType(LISTENER_TYPE));
+    }
+
+    private static MethodHandle unreflect(@NotNull Method method) {
         try {
             if (!method.isAccessible())
                 method.setAccessible(true);
-            handle = MethodHandles.lookup().unreflect(method);
-            if (!(listenerInstnace instanceof Class)) handle = handle.bindTo(listenerInstnace);
+            return MethodHandles.lookup().unreflect(method);
         } catch (Throwable t) {
             throw new IllegalStateException("Cannot make method " + method.getName() + " in " + method.getDeclaringClass() + " accessible reflectively. Maybe make it public?");
         }
-        MethodHandle methodHandle = handle;
-        return methodHandle::invoke;
+    }
+
+    @Override protected void invokeAll(@NotNull Object event) {
+        Class<?> eventClass = event.getClass();
+        if (!linkCallSites || hasRoutes(eventClass)) {
+            super.invokeAll(event);
+            return;
+        }
+        Subscription[] subscriptions = getSubscriptions(eventClass);
+        AtomicReference<DispatchEntry> slot = dispatchers.get(eventClass);
+        DispatchEntry entry = slot.get();
+        if (entry == null || entry.subscriptions != subscriptions) {
+            entry = new DispatchEntry(subscriptions, combine(eventClass, subscriptions));
+            slot.set(entry);
+        }
+        try {
+            entry.dispatcher.invokeExact(event);
+        } catch (RuntimeException | Error e) {
+            throw e; // thrown by the exception handler
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Combines the given subscriptions into a single handle of type
+     * {@code (Object)void} that invokes them in order.
+     *
+     * @param eventClass    The event class
+     * @param subscriptions The subscriptions of the event class
+     * @return The dispatch handle
+     */
+    private MethodHandle combine(@NotNull Class<?> eventClass, @NotNull Subscription[] subscriptions) {
+        boolean cancellable = Cancellable.class.isAssignableFrom(eventClass);
+        MethodHandle target = NO_OP;
+        for (int i = subscriptions.length - 1; i >= 0; i--) {
+            MethodHandle invoker = guard(subscriptions[i]);
+            if (cancellable && !subscriptions[i].receivesCancelled())
+                invoker = MethodHandles.guardWithTest(IS_CANCELLED, NO_OP, invoker);
+            target = MethodHandles.foldArguments(target, invoker);
+        }
+        return target;
+    }
+
+    /**
+     * Creates a handle of type {@code (Object)void} that invokes the given
+     * subscription if its filter accepts the event, and passes any exception
+     * it throws to the exception handler.
+     */
+    private MethodHandle guard(@NotNull Subscription subscription) {
+        EventListener<?> listener = subscription.getListener();
+        MethodHandle handle = listener instanceof MethodHandleListener
+                ? ((MethodHandleListener<?>) listener).getHandle()
+                : HANDLE.bindTo(listener);
+        if (subscription.getFilter() != null)
+            handle = MethodHandles.guardWithTest(TEST.bindTo(subscription.getFilter()), handle, NO_OP);
+        MethodHandle handler = MethodHandles.insertArguments(HANDLE_EXCEPTION, 0, exceptionHandler, subscription);
+        handler = MethodHandles.permuteArguments(handler, MethodType.methodType(void.class, Throwable.class, Object.class), 1, 0);
+        return MethodHandles.catchException(handle, Throwable.class, handler);
+    }
+
+    /**
+     * The combined dispatch handle of an event class, along with the
+     * subscriptions it was combined from. The handle is replaced once the
+     * subscriptions of its event class change, while an unchanged handle
+     * that is invoked often has its lambda forms customized and compiled
+     * by the JVM.
+     */
+    private static final class DispatchEntry {
+
+        private final Subscription[] subscriptions;
+        private final MethodHandle dispatcher;
+
+        public DispatchEntry(Subscription[] subscriptions, MethodHandle dispatcher) {
+            this.subscriptions = subscriptions;
+            this.dispatcher = dispatcher;
+        }
+    }
+
+    static {
+        try {
+            HANDLE = MethodHandles.publicLookup().findVirtual(EventListener.class, "handle", LISTENER_TYPE);
+            HANDLE_EXCEPTION = MethodHandles.publicLookup().findVirtual(EventExceptionHandler.class, "handleException",
+                    MethodType.methodType(void.class, Subscription.class, Object.class, Throwable.class));
+            IS_CANCELLED = MethodHandles.publicLookup().findVirtual(Cancellable.class, "isCancelled", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            TEST = MethodHandles.publicLookup().findVirtual(Predicate.class, "test", MethodType.methodType(boolean.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 }
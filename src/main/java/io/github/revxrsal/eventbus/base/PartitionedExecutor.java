@@ -0,0 +1,204 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.DispatchQueue;
+import io.github.revxrsal.eventbus.OverflowPolicy;
+import io.github.revxrsal.eventbus.Partitioned;
+import io.github.revxrsal.eventbus.gen.PartitionKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * An {@link Executor} that routes every dispatch to one of a fixed number
+ * of single-threaded lanes, by the hash of the partition key of the
+ * dispatched event. Dispatches of events with equal keys therefore run in
+ * the order they were submitted, while different keys run in parallel.
+ * <p>
+ * The partition key of an event is, in order:
+ * <ol>
+ *     <li>The result of the key function, if one is given</li>
+ *     <li>{@link Partitioned#getPartitionKey()}</li>
+ *     <li>The value of the getter annotated with {@link PartitionKey}</li>
+ * </ol>
+ * Events without a key, and tasks that are not dispatches, are spread
+ * across the lanes. If the key of an event cannot be computed, the future
+ * of its dispatch is failed with the exception instead.
+ */
+class PartitionedExecutor implements Executor {
+
+    private final Executor[] lanes;
+    private final ExecutorService[] threads;
+    private final @Nullable Function<Object, ?> keyFunction;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private PartitionedExecutor(@NotNull Executor[] lanes, @NotNull ExecutorService[] threads, @Nullable Function<Object, ?> keyFunction) {
+        this.lanes = lanes;
+        this.threads = threads;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Creates a partitioned executor with the given number of lanes. If the
+     * capacity is positive, every lane is bounded by a {@link BoundedDispatchQueue}
+     * of that capacity, and the returned executor is a {@link DispatchQueue}.
+     *
+     * @param lanes       The number of lanes
+     * @param keyFunction The function that returns the key of an event
+     * @param capacity    The capacity of every lane, or -1 if unbounded
+     * @param policy      The overflow policy of bounded lanes
+     * @return The executor
+     */
+    public static @NotNull PartitionedExecutor create(int lanes, @Nullable Function<Object, ?> keyFunction,
+                                                      int capacity, @Nullable OverflowPolicy policy) {
+        Executor[] executors = new Executor[lanes];
+        ExecutorService[] threads = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String name = "EventBus Partition #" + (i + 1);
+            ExecutorService lane = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            threads[i] = lane;
+            executors[i] = capacity > 0 ? new BoundedDispatchQueue(lane, capacity, policy) : lane;
+        }
+        return capacity > 0 ? new Bounded(executors, threads, keyFunction) : new PartitionedExecutor(executors, threads, keyFunction);
+    }
+
+    /**
+     * Stops the lane threads once they have run the dispatches that were
+     * already submitted, and rejects new ones.
+     */
+    public void shutdown() {
+        for (ExecutorService thread : threads) thread.shutdown();
+    }
+
+    @Override public void execute(@NotNull Runnable task) {
+        int lane;
+        try {
+            lane = laneOf(task);
+        } catch (RuntimeException e) {
+            if (!(task instanceof DispatchTask)) throw e;
+            ((DispatchTask<?>) task).fail(e); // a broken key fails its own dispatch only
+            return;
+        }
+        lanes[lane].execute(task);
+    }
+
+    /**
+     * Returns the index of the lane of the given task
+     *
+     * @param task The task to run
+     * @return The lane index
+     * @throws RuntimeException If the partition key of the dispatched event
+     *                          cannot be computed
+     */
+    int laneOf(@NotNull Runnable task) {
+        Object event = task instanceof DispatchTask ? ((DispatchTask<?>) task).getEvent() : null;
+        Object key = event == null ? null : keyOf(event);
+        if (key == null)
+            return Math.floorMod(next.getAndIncrement(), lanes.length);
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private @Nullable Object keyOf(@NotNull Object event) {
+        if (keyFunction != null)
+            return keyFunction.apply(event);
+        if (event instanceof Partitioned)
+            return ((Partitioned) event).getPartitionKey();
+        MethodHandle getter = KEY_GETTERS.get(event.getClass());
+        if (getter == NO_KEY)
+            return null;
+        try {
+            return getter.invokeExact(event);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to get the partition key of " + event, throwable);
+        }
+    }
+
+    /**
+     * A partitioned executor whose lanes are bounded
+     */
+    private static final class Bounded extends PartitionedExecutor implements DispatchQueue {
+
+        private final BoundedDispatchQueue[] queues;
+
+        private Bounded(@NotNull Executor[] lanes, @NotNull ExecutorService[] threads, @Nullable Function<Object, ?> keyFunction) {
+            super(lanes, threads, keyFunction);
+            this.queues = new BoundedDispatchQueue[lanes.length];
+            for (int i = 0; i < lanes.length; i++) queues[i] = (BoundedDispatchQueue) lanes[i];
+        }
+
+        @Override public int getQueueDepth() {
+            int depth = 0;
+            for (BoundedDispatchQueue queue : queues) depth += queue.getQueueDepth();
+            return depth;
+        }
+
+        @Override public int getCapacity() {
+            return queues.length * queues[0].getCapacity();
+        }
+
+        @Override public long getDroppedCount() {
+            long dropped = 0;
+            for (BoundedDispatchQueue queue : queues) dropped += queue.getDroppedCount();
+            return dropped;
+        }
+
+        @Override public OverflowPolicy getOverflowPolicy() {
+            return queues[0].getOverflowPolicy();
+        }
+    }
+
+    private static final MethodHandle NO_KEY = MethodHandles.constant(Object.class, null);
+
+    /**
+     * The getters annotated with {@link PartitionKey} of event classes, or
+     * {@link #NO_KEY} if an event class has none. Getters are looked up in
+     * the whole hierarchy, so they can be declared by generated interfaces.
+     */
+    private static final ClassValue<MethodHandle> KEY_GETTERS = new ClassValue<MethodHandle>() {
+        @Override protected MethodHandle computeValue(Class<?> type) {
+            Method getter = findKeyGetter(type);
+            if (getter == null) return NO_KEY;
+            if (getter.getParameterCount() != 0 || getter.getReturnType() == void.class) {
+                throw new IllegalArgumentException("Partition key " + getter.getName() + " in " + getter.getDeclaringClass()
+                        + " must be a getter with no parameters!");
+            }
+            try {
+                getter.setAccessible(true);
+                return MethodHandles.lookup().unreflect(getter)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException("Could not access partition key " + getter.getName() + " in "
+                        + getter.getDeclaringClass() + ". Maybe make it public?", e);
+            }
+        }
+    };
+
+    private static @Nullable Method findKeyGetter(@NotNull Class<?> type) {
+        Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(type);
+        while (!types.isEmpty()) {
+            Class<?> current = types.poll();
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(PartitionKey.class)) return method;
+            }
+            if (current.getSuperclass() != null) types.add(current.getSuperclass());
+            for (Class<?> interfaceType : current.getInterfaces()) types.add(interfaceType);
+        }
+        return null;
+    }
+}
@@ -2,12 +2,16 @@ package io.github.revxrsal.eventbus.base;
 
 import io.github.revxrsal.eventbus.EventExceptionHandler;
 import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.ResponseListener;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 class ReflectionEventBus extends BaseEventBus {
 
@@ -15,6 +19,14 @@ class ReflectionEventBus extends BaseEventBus {
         super(exceptionHandler, executor, annotations, hierarchicalInvocation);
     }
 
+    public ReflectionEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, @Nullable ForkJoinPool fanOutPool) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool);
+    }
+
+    public ReflectionEventBus(EventExceptionHandler exceptionHandler, Executor executor, List<Class<? extends Annotation>> annotations, boolean hierarchicalInvocation, @Nullable ForkJoinPool fanOutPool, Executor asyncExecutor) {
+        super(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+    }
+
     @Override protected <T> EventListener<T> createEventListener(@NotNull Object listenerInstnace, @NotNull Method method) {
         try {
             if (!method.isAccessible())
@@ -24,4 +36,22 @@ class ReflectionEventBus extends BaseEventBus {
         }
         return event -> method.invoke(listenerInstnace, event);
     }
+
+    @Override protected Function<Object, EventListener<?>> createListenerFactory(@NotNull Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot make method " + method.getName() + " in " + method.getDeclaringClass() + " accessible reflectively. Maybe make it public?");
+        }
+        return instance -> event -> method.invoke(instance, event);
+    }
+
+    @Override protected Function<Object, EventListener<?>> createResponseFactory(@NotNull Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot make method " + method.getName() + " in " + method.getDeclaringClass() + " accessible reflectively. Maybe make it public?");
+        }
+        return instance -> (ResponseListener<Object, Object>) event -> method.invoke(instance, event);
+    }
 }
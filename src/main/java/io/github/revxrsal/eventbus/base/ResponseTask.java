@@ -0,0 +1,45 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.Subscription;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * A task that gathers the responses of a range of subscriptions in parallel,
+ * by recursively splitting the range in halves and combining the result
+ * containers of both halves, in order.
+ */
+@SuppressWarnings("serial")
+final class ResponseTask<A> extends RecursiveTask<A> {
+
+    private final Subscription[] subscriptions;
+    private final int from, to;
+    private final Collector<Object, A, ?> collector;
+    private final Function<Subscription, Object> responder;
+
+    public ResponseTask(Subscription[] subscriptions, int from, int to, Collector<Object, A, ?> collector, Function<Subscription, Object> responder) {
+        this.subscriptions = subscriptions;
+        this.from = from;
+        this.to = to;
+        this.collector = collector;
+        this.responder = responder;
+    }
+
+    @Override protected A compute() {
+        if (to - from <= 1) {
+            A container = collector.supplier().get();
+            if (to > from) {
+                Object response = responder.apply(subscriptions[from]);
+                if (response != null) collector.accumulator().accept(container, response);
+            }
+            return container;
+        }
+        int middle = (from + to) >>> 1;
+        ResponseTask<A> right = new ResponseTask<>(subscriptions, middle, to, collector, responder);
+        right.fork();
+        A left = new ResponseTask<>(subscriptions, from, middle, collector, responder).compute();
+        return collector.combiner().apply(left, right.join());
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.WaitStrategy;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link Executor} backed by a preallocated ring buffer, whose slots are
+ * claimed through sequences rather than locks, and drained by a fixed number
+ * of consumer threads.
+ * <p>
+ * Each slot carries a sequence that tells producers whether it is free, and
+ * consumers whether it is published, so any number of producers and consumers
+ * can use the buffer concurrently. When the buffer is full, producers wait
+ * using the configured {@link WaitStrategy}. Consumers claim all the published
+ * slots in a row, up to {@link #MAX_BATCH}, with a single CAS.
+ * <p>
+ * Once {@link #shutdown() shut down}, new tasks are rejected, and the
+ * consumer threads exit as soon as the buffer is drained. A task published
+ * concurrently with the shutdown is run by its producer if the consumers may
+ * have exited already, so no published task is ever lost.
+ */
+final class RingBufferExecutor implements Executor {
+
+    /**
+     * The maximum number of slots a consumer claims at once. Larger batches
+     * lower contention on the consumer cursor, but may leave other consumers
+     * idle while one works through its batch.
+     */
+    static final int MAX_BATCH = 64;
+
+    private final AtomicReferenceArray<Runnable> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong producerCursor = new AtomicLong();
+    private final AtomicLong consumerCursor = new AtomicLong();
+    private final Thread[] consumers;
+    private volatile boolean running = true;
+
+    public RingBufferExecutor(int capacity, int consumers, @NotNull WaitStrategy waitStrategy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two (Found: " + capacity + ")");
+        if (consumers < 1)
+            throw new IllegalArgumentException("Ring buffer must have at least 1 consumer (Found: " + consumers + ")");
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.consumers = new Thread[consumers];
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+        for (int i = 0; i < consumers; i++) {
+            Thread thread = new Thread(this::consume, "EventBus Ring Buffer Consumer #" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            this.consumers[i] = thread;
+        }
+    }
+
+    @Override public void execute(@NotNull Runnable task) {
+        if (!running)
+            throw new RejectedExecutionException("Ring buffer has been shut down");
+        int attempts = 0;
+        while (true) {
+            long position = producerCursor.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, task);
+                    sequences.set(index, position + 1); // publish
+                    if (!running)
+                        drain(new Runnable[MAX_BATCH]); // the consumers may have exited before seeing the task
+                    return;
+                }
+            } else if (difference < 0) {
+                waitStrategy.idle(++attempts); // buffer is full
+            }
+        }
+    }
+
+    /**
+     * Rejects new tasks, and lets the consumer threads exit once they have
+     * run all the tasks that were already published. This does not wait for
+     * them to exit.
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    /**
+     * Waits for the consumer threads to exit after a {@link #shutdown()}.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The time unit of the timeout
+     * @return True if all consumer threads exited in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread consumer : consumers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0)
+                TimeUnit.NANOSECONDS.timedJoin(consumer, remaining);
+            if (consumer.isAlive())
+                return false;
+        }
+        return true;
+    }
+
+    private void consume() {
+        Runnable[] batch = new Runnable[MAX_BATCH];
+        int attempts = 0;
+        while (true) {
+            if (drain(batch) > 0) {
+                attempts = 0;
+            } else if (!running) {
+                if (drain(batch) == 0) // check again, as the buffer is only final once shut down
+                    return;
+            } else {
+                waitStrategy.idle(++attempts); // buffer is empty
+            }
+        }
+    }
+
+    /**
+     * Claims the published slots at the consumer cursor and runs their tasks,
+     * retrying while other consumers claim the same slots first.
+     *
+     * @param batch The array to move claimed tasks to
+     * @return The number of tasks that were run, or 0 if the buffer is empty
+     */
+    private int drain(Runnable[] batch) {
+        while (true) {
+            long position = consumerCursor.get();
+            int published = 0;
+            while (published < batch.length && sequences.get((int) (position + published) & mask) == position + published + 1)
+                published++;
+            if (published == 0)
+                return 0;
+            if (!consumerCursor.compareAndSet(position, position + published))
+                continue;
+            for (int i = 0; i < published; i++) {
+                int index = (int) (position + i) & mask;
+                batch[i] = slots.get(index);
+                slots.lazySet(index, null);
+                sequences.set(index, position + i + mask + 1); // free the slot for the next lap
+            }
+            for (int i = 0; i < published; i++) {
+                run(batch[i]);
+                batch[i] = null;
+            }
+            return published;
+        }
+    }
+
+    private static void run(@NotNull Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable throwable) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package io.github.revxrsal.eventbus.base;
 import io.github.revxrsal.eventbus.EventBus;
 import io.github.revxrsal.eventbus.EventBusBuilder;
 import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.OverflowPolicy;
 import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.WaitStrategy;
 import io.github.revxrsal.eventbus.asm.ASMEventBus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -15,12 +17,24 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class SimpleEventBusBuilder implements EventBusBuilder {
 
     private EventExceptionHandler exceptionHandler;
     private Executor executor = DEFAULT_EXECUTOR;
+    private Supplier<RingBufferExecutor> executorFactory; // created on build(), overrides executor
+    private boolean virtualThreads = false; // falls back to executor
+    private int partitions = -1; // not partitioned, overrides executor
+    private Function<Object, ?> partitionKey;
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
     private boolean hierarchicalInvocation = true;
+    private boolean generateDispatchers = false;
+    private ForkJoinPool fanOutPool;
+    private int queueCapacity = -1; // unbounded
+    private OverflowPolicy overflowPolicy;
     private final List<Class<? extends Annotation>> annotations = new ArrayList<>();
     private final String type;
 
@@ -31,6 +45,13 @@ public final class SimpleEventBusBuilder implements EventBusBuilder {
 
     public @NotNull SimpleEventBusBuilder executor(@NotNull Executor executor) {
         this.executor = Objects.requireNonNull(executor, "executor");
+        this.executorFactory = null;
+        this.partitions = -1;
+        return this;
+    }
+
+    @Override public @NotNull SimpleEventBusBuilder asyncExecutor(@NotNull Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "executor");
         return this;
     }
 
@@ -56,6 +77,63 @@ public final class SimpleEventBusBuilder implements EventBusBuilder {
         return this;
     }
 
+    @Override public @NotNull EventBusBuilder generateDispatchers() {
+        generateDispatchers = true;
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder ringBuffer(int capacity, int consumers, @NotNull WaitStrategy waitStrategy) {
+        Objects.requireNonNull(waitStrategy, "waitStrategy");
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two (Found: " + capacity + ")");
+        if (consumers < 1)
+            throw new IllegalArgumentException("Ring buffer must have at least 1 consumer (Found: " + consumers + ")");
+        this.executorFactory = () -> new RingBufferExecutor(capacity, consumers, waitStrategy);
+        this.virtualThreads = false;
+        this.partitions = -1;
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder virtualThreads() {
+        this.virtualThreads = true;
+        this.executorFactory = null;
+        this.partitions = -1;
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder partitioned(int lanes) {
+        if (lanes < 1)
+            throw new IllegalArgumentException("Partitioned dispatch must have at least 1 lane (Found: " + lanes + ")");
+        this.partitions = lanes;
+        this.partitionKey = null;
+        this.executorFactory = null;
+        this.virtualThreads = false;
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder partitioned(int lanes, @NotNull Function<Object, ?> keyFunction) {
+        partitioned(lanes);
+        this.partitionKey = Objects.requireNonNull(keyFunction, "keyFunction");
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder boundedQueue(int capacity, @NotNull OverflowPolicy policy) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Dispatch queue capacity must be positive (Found: " + capacity + ")");
+        this.queueCapacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(policy, "policy");
+        return this;
+    }
+
+    @Override public @NotNull EventBusBuilder parallelFanOut() {
+        return parallelFanOut(ForkJoinPool.commonPool());
+    }
+
+    @Override public @NotNull EventBusBuilder parallelFanOut(@NotNull ForkJoinPool pool) {
+        this.fanOutPool = Objects.requireNonNull(pool, "pool");
+        return this;
+    }
+
     public static SimpleEventBusBuilder asm() {
         return new SimpleEventBusBuilder(ASM);
     }
@@ -64,26 +142,60 @@ public final class SimpleEventBusBuilder implements EventBusBuilder {
         return new SimpleEventBusBuilder(MH);
     }
 
+    public static SimpleEventBusBuilder lambdaMetafactory() {
+        return new SimpleEventBusBuilder(LAMBDA);
+    }
+
     public static SimpleEventBusBuilder reflection() {
         return new SimpleEventBusBuilder(REFLECTION);
     }
 
     public @NotNull EventBus build() {
         if (exceptionHandler == null) exceptionHandler = EventExceptionHandler.PRINT_STACKTRACE;
+        Executor executor;
+        Runnable shutdown = null;
+        if (partitions > 0) {
+            PartitionedExecutor partitioned = PartitionedExecutor.create(partitions, partitionKey, queueCapacity, overflowPolicy);
+            shutdown = partitioned::shutdown;
+            executor = partitioned;
+        } else {
+            if (executorFactory != null) {
+                RingBufferExecutor ringBuffer = executorFactory.get();
+                shutdown = ringBuffer::shutdown;
+                executor = ringBuffer;
+            } else {
+                executor = this.executor;
+            }
+            if (virtualThreads) executor = VirtualThreadExecutor.orElse(executor);
+            if (queueCapacity > 0) {
+                if (executor == DEFAULT_EXECUTOR)
+                    throw new IllegalStateException("A bounded dispatch queue requires an asynchronous executor. Set one with executor(Executor)");
+                executor = new BoundedDispatchQueue(executor, queueCapacity, overflowPolicy);
+            }
+        }
+        BaseEventBus bus;
         switch (type) {
             case MH:
-                return new MethodHandlesEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation);
+                bus = new MethodHandlesEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation, generateDispatchers, fanOutPool, asyncExecutor);
+                break;
+            case LAMBDA:
+                bus = new LambdaEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+                break;
             case REFLECTION:
-                return new ReflectionEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation);
+                bus = new ReflectionEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation, fanOutPool, asyncExecutor);
+                break;
             default: {
-                return new ASMEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation);
+                bus = new ASMEventBus(exceptionHandler, executor, annotations, hierarchicalInvocation, generateDispatchers, fanOutPool, asyncExecutor);
             }
         }
+        if (shutdown != null) bus.onClose(shutdown);
+        return bus;
     }
 
     static final Executor DEFAULT_EXECUTOR = Runnable::run;
     private static final String ASM = "io.github.revxrsal.eventbus.asm.ASMEventBus";
     private static final String MH = "io.github.revxrsal.eventbus.base.MethodHandlesEventBus";
+    private static final String LAMBDA = "io.github.revxrsal.eventbus.base.LambdaEventBus";
     private static final String REFLECTION = "io.github.revxrsal.eventbus.base.ReflectionEventBus";
 
 }
@@ -0,0 +1,89 @@
+package io.github.revxrsal.eventbus.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The sticky events of an event bus, one per event class.
+ * <p>
+ * Events are held in slots of a {@link ClassValue}, so they do not keep the
+ * class loaders of their classes alive. The classes that have an event are
+ * indexed by every type of their flattened hierarchy, in weak sets, so that
+ * the sticky events a new subscription receives are found by its event type
+ * alone, and looking up a class without an event never creates a slot.
+ */
+final class StickyEvents {
+
+    private final ClassValue<AtomicReference<Object>> slots = new ClassValue<AtomicReference<Object>>() {
+        @Override protected AtomicReference<Object> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+    private final Map<Class<?>, Set<Class<?>>> bySupertype = new WeakHashMap<>(); // guarded by this
+
+    /**
+     * Sets the sticky event of the class of the given event
+     *
+     * @param event The sticky event
+     */
+    public synchronized void put(@NotNull Object event) {
+        Class<?> type = event.getClass();
+        slots.get(type).set(event);
+        for (Class<?> supertype : SubscriptionIndex.hierarchy(type))
+            bySupertype.computeIfAbsent(supertype, k -> Collections.newSetFromMap(new WeakHashMap<>())).add(type);
+    }
+
+    /**
+     * Returns the sticky event of exactly the given class
+     *
+     * @param type The event class
+     * @return The sticky event, or null if there is none
+     */
+    public synchronized @Nullable Object get(@NotNull Class<?> type) {
+        return has(type) ? slots.get(type).get() : null;
+    }
+
+    /**
+     * Removes the sticky event of exactly the given class
+     *
+     * @param type The event class
+     * @return The removed event, or null if there was none
+     */
+    public synchronized @Nullable Object remove(@NotNull Class<?> type) {
+        if (!has(type)) return null;
+        for (Class<?> supertype : SubscriptionIndex.hierarchy(type)) {
+            Set<Class<?>> types = bySupertype.get(supertype);
+            if (types != null && types.remove(type) && types.isEmpty())
+                bySupertype.remove(supertype);
+        }
+        return slots.get(type).getAndSet(null);
+    }
+
+    /**
+     * Returns the sticky events whose classes are the given type or one of
+     * its subtypes
+     *
+     * @param type The event type
+     * @return The sticky events
+     */
+    public synchronized @NotNull List<Object> getAssignableTo(@NotNull Class<?> type) {
+        Set<Class<?>> types = bySupertype.get(type);
+        if (types == null) return Collections.emptyList();
+        List<Object> events = new ArrayList<>(types.size());
+        for (Class<?> sticky : types)
+            events.add(slots.get(sticky).get());
+        return events;
+    }
+
+    public synchronized boolean isEmpty() {
+        return bySupertype.isEmpty();
+    }
+
+    private boolean has(Class<?> type) {
+        Set<Class<?>> types = bySupertype.get(type);
+        return types != null && types.contains(type);
+    }
+}
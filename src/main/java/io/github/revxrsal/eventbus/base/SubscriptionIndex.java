@@ -0,0 +1,719 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An index of subscriptions keyed by their event type, which resolves the
+ * subscriptions of a dispatched event class to a ready-to-iterate array.
+ * <p>
+ * Mutations are guarded by this index's monitor, while lookups of
+ * already-resolved event classes are lock-free. The subscriptions of each
+ * event type are kept in a sorted set, so that adding or removing one is
+ * logarithmic, and the array handed out for dispatching is only rebuilt on
+ * the next lookup, once for any number of changes. Subscriptions are also
+ * indexed by their listener instance, event listener and name, so that
+ * removing them never visits other subscriptions, and events can be
+ * targeted at them.
+ * <p>
+ * Subscriptions targeted by listener instance or name are resolved per
+ * event class as well, into arrays that are looked up without locking, and
+ * dropped as soon as the subscriptions of their instance or name change.
+ * <p>
+ * With hierarchical invocation, an event class resolves to the merged
+ * subscriptions of its flattened hierarchy. The merged array is cached
+ * until a subscription for one of its supertypes changes. Each event type
+ * remembers the resolved classes that depend on it, so a change only
+ * invalidates those.
+ * <p>
+ * All arrays are sorted by {@link Subscription#getPriority() priority},
+ * highest first, and by registration order within equal priorities, so
+ * dispatching never has to sort. Merged arrays order subscriptions of
+ * different types by registration order as well.
+ * <p>
+ * Resolved arrays are cached in slots of a {@link ClassValue}, so they do not
+ * keep the class loaders of dispatched event classes alive. Slots are only
+ * filled and cleared under this index's monitor, so that an array resolved
+ * concurrently with a mutation can never outlive it.
+ * <p>
+ * Routed subscriptions are only invoked for events whose property has a
+ * given value. They are kept apart from the other subscriptions, in a hash
+ * index per property from the property value to the subscriptions, so that
+ * finding them takes one lookup no matter how many values are routed. The
+ * routed subscriptions that match an event are merged into its resolved
+ * array by priority and registration order, which only allocates when one
+ * matches.
+ */
+final class SubscriptionIndex {
+
+    static final Subscription[] EMPTY = new Subscription[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Map<Class<?>, TypeSubscriptions> byType = new HashMap<>(); // guarded by this
+    private final Map<Subscription, Entry> entries = new IdentityHashMap<>(); // guarded by this
+    private final Map<IdentityKey, Group> byInstance = new ConcurrentHashMap<>(); // mutated under this
+    private final Map<EventListener<?>, Set<Subscription>> byListener = new IdentityHashMap<>(); // guarded by this
+    private final Map<String, Group> byName = new ConcurrentHashMap<>(); // mutated under this
+    private final Map<Class<?>, Set<Class<?>>> dependents = new WeakHashMap<>(); // guarded by this
+    private final ClassValue<AtomicReference<Resolved>> resolved = new ClassValue<AtomicReference<Resolved>>() {
+        @Override protected AtomicReference<Resolved> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+    private final ClassValue<Map<Group, Subscription[]>> resolvedGroups = new ClassValue<Map<Group, Subscription[]>>() {
+        @Override protected Map<Group, Subscription[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private final Map<Class<?>, Map<String, Route>> routes = new HashMap<>(); // guarded by this
+    private final Map<Subscription, RouteKey> routedSubscriptions = new IdentityHashMap<>(); // guarded by this
+    private final Set<Class<?>> routedTypes = Collections.newSetFromMap(new WeakHashMap<>()); // guarded by this
+    private final ClassValue<AtomicReference<Route[]>> resolvedRoutes = new ClassValue<AtomicReference<Route[]>>() {
+        @Override protected AtomicReference<Route[]> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+    private final boolean hierarchical;
+    private long sequence; // guarded by this
+    private final Set<Subscription> view = new AbstractSet<Subscription>() {
+        @Override public @NotNull Iterator<Subscription> iterator() {
+            return Collections.unmodifiableList(snapshot()).iterator();
+        }
+
+        @Override public int size() {
+            synchronized (SubscriptionIndex.this) {
+                return entries.size();
+            }
+        }
+
+        @Override public boolean contains(Object o) {
+            synchronized (SubscriptionIndex.this) {
+                return entries.containsKey(o);
+            }
+        }
+    };
+
+    public SubscriptionIndex(boolean hierarchical) {
+        this.hierarchical = hierarchical;
+    }
+
+    /**
+     * Returns a read-only view of all the subscriptions in this index. Its
+     * iterators walk a snapshot taken when they are created.
+     *
+     * @return The subscriptions
+     */
+    public @NotNull Set<Subscription> view() {
+        return view;
+    }
+
+    private synchronized List<Subscription> snapshot() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Returns the subscriptions that should be invoked for the given
+     * event class. The returned array must not be modified.
+     *
+     * @param eventClass The concrete class of the dispatched event
+     * @return The subscriptions to invoke
+     */
+    public @NotNull Subscription[] get(@NotNull Class<?> eventClass) {
+        return resolved(eventClass).subscriptions;
+    }
+
+    private Resolved resolved(Class<?> eventClass) {
+        AtomicReference<Resolved> slot = resolved.get(eventClass);
+        Resolved subscriptions = slot.get();
+        return subscriptions == null ? resolve(eventClass, slot) : subscriptions;
+    }
+
+    /**
+     * Returns the subscriptions that should be invoked for the given event,
+     * which are the subscriptions of its class merged with the routed
+     * subscriptions whose routed values match it. The returned array must
+     * not be modified.
+     *
+     * @param event The dispatched event
+     * @return The subscriptions to invoke
+     */
+    public @NotNull Subscription[] getWithRouted(@NotNull Object event) {
+        Resolved resolved = resolved(event.getClass());
+        Route[] routes = routes(event.getClass());
+        if (routes.length == 0)
+            return resolved.subscriptions;
+        Entry[] matched = match(routes, event);
+        return matched.length == 0 ? resolved.subscriptions : merge(resolved.entries, matched);
+    }
+
+    /**
+     * Returns the subscriptions that should be invoked for a run of events of
+     * the same class, which are the subscriptions of their class merged with
+     * the routed subscriptions that match any of them. The subscriptions to
+     * invoke for each event are stored in the given array, and are ordered
+     * the same way as the returned ones.
+     *
+     * @param events   The dispatched events
+     * @param from     The index of the first event of the run
+     * @param to       The index after the last event of the run
+     * @param perEvent The array to store the subscriptions of each event in
+     * @return The subscriptions to invoke for any of the events
+     */
+    public @NotNull Subscription[] getWithRouted(@NotNull Object[] events, int from, int to,
+                                                 @NotNull Subscription[][] perEvent) {
+        Class<?> eventClass = events[from].getClass();
+        Resolved resolved = resolved(eventClass);
+        Route[] routes = routes(eventClass);
+        Set<Entry> matchedAny = new TreeSet<>();
+        for (int i = from; i < to; i++) {
+            Entry[] matched = routes.length == 0 ? NO_ENTRIES : match(routes, events[i]);
+            perEvent[i - from] = matched.length == 0 ? resolved.subscriptions : merge(resolved.entries, matched);
+            Collections.addAll(matchedAny, matched);
+        }
+        return matchedAny.isEmpty() ? resolved.subscriptions : merge(resolved.entries, matchedAny.toArray(NO_ENTRIES));
+    }
+
+    /**
+     * Returns the routed subscriptions whose routed values match the
+     * given event, sorted by priority.
+     *
+     * @param event The dispatched event
+     * @return The routed subscriptions to invoke
+     */
+    public @NotNull Subscription[] getRouted(@NotNull Object event) {
+        Entry[] matched = match(routes(event.getClass()), event);
+        return merge(NO_ENTRIES, matched);
+    }
+
+    /**
+     * Tests whether are there routed subscriptions that may be invoked for
+     * the given event class.
+     *
+     * @param eventClass The concrete class of the dispatched event
+     * @return True if the event class has routed subscriptions
+     */
+    public boolean hasRoutes(@NotNull Class<?> eventClass) {
+        return routes(eventClass).length != 0;
+    }
+
+    private Route[] routes(Class<?> eventClass) {
+        AtomicReference<Route[]> slot = resolvedRoutes.get(eventClass);
+        Route[] routes = slot.get();
+        return routes == null ? resolveRoutes(eventClass, slot) : routes;
+    }
+
+    /**
+     * Returns the routed entries of the given routes that match the given
+     * event, sorted by priority and registration order.
+     */
+    private static Entry[] match(Route[] routes, Object event) {
+        if (routes.length == 1)
+            return routes[0].get(event);
+        Entry[] matched = NO_ENTRIES;
+        for (Route route : routes) {
+            Entry[] routed = route.get(event);
+            if (routed.length == 0) continue;
+            int length = matched.length;
+            matched = Arrays.copyOf(matched, length + routed.length);
+            System.arraycopy(routed, 0, matched, length, routed.length);
+        }
+        Arrays.sort(matched);
+        return matched;
+    }
+
+    /**
+     * Merges two arrays of entries that are sorted by priority and
+     * registration order into one array of their subscriptions.
+     */
+    private static Subscription[] merge(Entry[] first, Entry[] second) {
+        Subscription[] merged = new Subscription[first.length + second.length];
+        int i = 0, j = 0, k = 0;
+        while (i < first.length && j < second.length)
+            merged[k++] = (first[i].compareTo(second[j]) < 0 ? first[i++] : second[j++]).subscription;
+        while (i < first.length)
+            merged[k++] = first[i++].subscription;
+        while (j < second.length)
+            merged[k++] = second[j++].subscription;
+        return merged;
+    }
+
+    /**
+     * Adds a subscription that is only invoked for events whose given property
+     * equals the given value.
+     *
+     * @param subscription The subscription
+     * @param property     The property name
+     * @param getter       The getter of the property, of type {@code (Object)Object}
+     * @param value        The value to route, which is of the type the getter returns
+     */
+    public synchronized void addRouted(@NotNull Subscription subscription, @NotNull String property,
+                                       @NotNull MethodHandle getter, @NotNull Object value) {
+        Class<?> eventType = subscription.getEventType();
+        Route route = routes.computeIfAbsent(eventType, k -> new HashMap<>()).get(property);
+        if (route == null) {
+            route = new Route(getter);
+            routes.get(eventType).put(property, route);
+            invalidateRoutes(eventType);
+        }
+        Entry entry = new Entry(subscription, sequence++);
+        route.add(value, entry);
+        routedSubscriptions.put(subscription, new RouteKey(eventType, property, route, value));
+        entries.put(subscription, entry);
+        addToIndexes(entry);
+    }
+
+    /**
+     * Tests whether is the given subscription routed to a property value
+     *
+     * @param subscription The subscription
+     * @return True if the subscription is routed
+     */
+    public synchronized boolean isRouted(@NotNull Subscription subscription) {
+        return routedSubscriptions.containsKey(subscription);
+    }
+
+    public synchronized void add(@NotNull Collection<Subscription> subscriptions) {
+        for (Subscription subscription : subscriptions) {
+            Entry entry = new Entry(subscription, sequence++);
+            entries.put(subscription, entry);
+            byType.computeIfAbsent(subscription.getEventType(), k -> new TypeSubscriptions()).add(entry);
+            addToIndexes(entry);
+            invalidate(subscription.getEventType());
+        }
+    }
+
+    /**
+     * Removes the given subscriptions. Removing a subscription takes
+     * logarithmic time in the number of subscriptions of its event type.
+     *
+     * @param subscriptions Subscriptions to remove
+     */
+    public synchronized void remove(@NotNull Collection<Subscription> subscriptions) {
+        for (Subscription subscription : subscriptions) {
+            Entry entry = entries.remove(subscription);
+            if (entry == null) continue; // already removed
+            removeFromIndexes(entry);
+            RouteKey routeKey = routedSubscriptions.remove(subscription);
+            if (routeKey != null) {
+                removeRouted(routeKey, entry);
+                continue;
+            }
+            TypeSubscriptions typeSubscriptions = byType.get(subscription.getEventType());
+            typeSubscriptions.remove(entry);
+            if (typeSubscriptions.isEmpty())
+                byType.remove(subscription.getEventType());
+            invalidate(subscription.getEventType());
+        }
+    }
+
+    /**
+     * Removes the given routed entry, and the route it was in once empty, so
+     * that events no longer look up the property.
+     */
+    private void removeRouted(RouteKey routeKey, Entry entry) {
+        routeKey.route.remove(routeKey.value, entry);
+        if (!routeKey.route.isEmpty()) return;
+        Map<String, Route> typeRoutes = routes.get(routeKey.eventType);
+        typeRoutes.remove(routeKey.property);
+        if (typeRoutes.isEmpty())
+            routes.remove(routeKey.eventType);
+        invalidateRoutes(routeKey.eventType);
+    }
+
+    /**
+     * Returns the subscriptions of the given listener instance that should
+     * be invoked for the given event class, sorted by priority. The returned
+     * array must not be modified.
+     *
+     * @param instance   The listener instance, compared by identity
+     * @param eventClass The concrete class of the dispatched event
+     * @return The subscriptions to invoke
+     */
+    public @NotNull Subscription[] getByInstance(@NotNull Object instance, @NotNull Class<?> eventClass) {
+        return getGroup(byInstance.get(new IdentityKey(instance)), eventClass);
+    }
+
+    /**
+     * Returns the subscriptions with the given name that should be invoked
+     * for the given event class, sorted by priority. The returned array must
+     * not be modified.
+     *
+     * @param name       The subscription name
+     * @param eventClass The concrete class of the dispatched event
+     * @return The subscriptions to invoke
+     */
+    public @NotNull Subscription[] getByName(@NotNull String name, @NotNull Class<?> eventClass) {
+        return getGroup(byName.get(name), eventClass);
+    }
+
+    private Subscription[] getGroup(@Nullable Group group, @NotNull Class<?> eventClass) {
+        if (group == null) return EMPTY;
+        Map<Group, Subscription[]> resolved = resolvedGroups.get(eventClass);
+        Subscription[] subscriptions = resolved.get(group);
+        return subscriptions == null ? resolveGroup(group, eventClass, resolved) : subscriptions;
+    }
+
+    /**
+     * Removes all the subscriptions of the given listener instance
+     *
+     * @param instance The listener instance, compared by identity
+     * @return The removed subscriptions
+     */
+    public synchronized @NotNull List<Subscription> removeInstance(@NotNull Object instance) {
+        Group group = byInstance.get(new IdentityKey(instance));
+        if (group == null) return Collections.emptyList();
+        List<Subscription> removed = group.subscriptions();
+        remove(removed);
+        return removed;
+    }
+
+    /**
+     * Removes all the subscriptions of the given event listener
+     *
+     * @param listener The event listener, compared by identity
+     */
+    public synchronized void removeListener(@NotNull EventListener<?> listener) {
+        Set<Subscription> subscriptions = byListener.get(listener);
+        if (subscriptions != null) remove(new ArrayList<>(subscriptions));
+    }
+
+    private void addToIndexes(Entry entry) {
+        Subscription subscription = entry.subscription;
+        if (subscription.getInstance() != null)
+            addToGroup(byInstance, new IdentityKey(subscription.getInstance()), entry);
+        byListener.computeIfAbsent(AsyncListener.unwrap(subscription.getListener()),
+                k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(subscription);
+        addToGroup(byName, subscription.getName(), entry);
+    }
+
+    private void removeFromIndexes(Entry entry) {
+        Subscription subscription = entry.subscription;
+        if (subscription.getInstance() != null)
+            removeFromGroup(byInstance, new IdentityKey(subscription.getInstance()), entry);
+        EventListener<?> listener = AsyncListener.unwrap(subscription.getListener());
+        Set<Subscription> listenerSubscriptions = byListener.get(listener);
+        if (listenerSubscriptions != null && listenerSubscriptions.remove(subscription) && listenerSubscriptions.isEmpty())
+            byListener.remove(listener);
+        removeFromGroup(byName, subscription.getName(), entry);
+    }
+
+    private <K> void addToGroup(Map<K, Group> index, K key, Entry entry) {
+        Group group = index.computeIfAbsent(key, k -> new Group());
+        group.entries.add(entry);
+        invalidate(group);
+    }
+
+    private <K> void removeFromGroup(Map<K, Group> index, K key, Entry entry) {
+        Group group = index.get(key);
+        if (group == null || !group.entries.remove(entry)) return;
+        if (group.entries.isEmpty())
+            index.remove(key);
+        invalidate(group);
+    }
+
+    private synchronized Subscription[] resolveGroup(Group group, Class<?> eventClass, Map<Group, Subscription[]> resolved) {
+        Subscription[] subscriptions = resolved.get(group);
+        if (subscriptions != null)
+            return subscriptions;
+        List<Subscription> matching = new ArrayList<>();
+        for (Entry entry : group.entries) {
+            if (entry.subscription.shouldInvoke(hierarchical, eventClass))
+                matching.add(entry.subscription);
+        }
+        subscriptions = matching.toArray(EMPTY);
+        if (!group.entries.isEmpty()) { // don't cache a group that was removed in the meantime
+            resolved.put(group, subscriptions);
+            group.resolvedClasses.add(eventClass);
+        }
+        return subscriptions;
+    }
+
+    /**
+     * Drops the arrays resolved for the given group. They are resolved again
+     * on the next lookup.
+     */
+    private void invalidate(Group group) {
+        for (Class<?> type : group.resolvedClasses)
+            resolvedGroups.get(type).remove(group);
+        group.resolvedClasses.clear();
+    }
+
+    private synchronized Resolved resolve(Class<?> eventClass, AtomicReference<Resolved> slot) {
+        Resolved subscriptions = slot.get();
+        if (subscriptions == null) {
+            subscriptions = new Resolved(collect(eventClass));
+            slot.set(subscriptions);
+            for (Class<?> type : hierarchical ? HIERARCHY.get(eventClass) : new Class<?>[]{eventClass})
+                dependents.computeIfAbsent(type, k -> Collections.newSetFromMap(new WeakHashMap<>())).add(eventClass);
+        }
+        return subscriptions;
+    }
+
+    private Entry[] collect(Class<?> eventClass) {
+        if (!hierarchical) {
+            TypeSubscriptions registered = byType.get(eventClass);
+            return registered == null ? NO_ENTRIES : registered.toArray();
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (Class<?> type : HIERARCHY.get(eventClass)) {
+            TypeSubscriptions registered = byType.get(type);
+            if (registered != null)
+                entries.addAll(registered.entries);
+        }
+        Collections.sort(entries); // by registration order within equal priorities, across all types
+        return entries.toArray(NO_ENTRIES);
+    }
+
+    private synchronized Route[] resolveRoutes(Class<?> eventClass, AtomicReference<Route[]> slot) {
+        Route[] resolved = slot.get();
+        if (resolved != null)
+            return resolved;
+        List<Route> eventRoutes = new ArrayList<>();
+        for (Class<?> type : hierarchical ? HIERARCHY.get(eventClass) : new Class<?>[]{eventClass}) {
+            Map<String, Route> typeRoutes = routes.get(type);
+            if (typeRoutes != null)
+                eventRoutes.addAll(typeRoutes.values());
+        }
+        resolved = eventRoutes.toArray(new Route[0]);
+        slot.set(resolved);
+        routedTypes.add(eventClass);
+        return resolved;
+    }
+
+    private void invalidateRoutes(Class<?> eventType) {
+        for (Iterator<Class<?>> iterator = routedTypes.iterator(); iterator.hasNext(); ) {
+            Class<?> type = iterator.next();
+            if (hierarchical ? eventType.isAssignableFrom(type) : eventType == type) {
+                iterator.remove();
+                resolvedRoutes.get(type).set(null);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the resolved classes that depend on the given event type.
+     * They register themselves again once they are resolved.
+     */
+    private void invalidate(Class<?> eventType) {
+        Set<Class<?>> types = dependents.remove(eventType);
+        if (types == null) return;
+        for (Class<?> type : types)
+            resolved.get(type).set(null);
+    }
+
+    /**
+     * A subscription in the index, ordered by priority, highest first, and
+     * by registration order within equal priorities.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        private final Subscription subscription;
+        private final long sequence;
+
+        public Entry(Subscription subscription, long sequence) {
+            this.subscription = subscription;
+            this.sequence = sequence;
+        }
+
+        @Override public int compareTo(@NotNull Entry other) {
+            int byPriority = Integer.compare(other.subscription.getPriority(), subscription.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * The resolved subscriptions of an event class, along with their entries,
+     * which routed subscriptions are merged into.
+     */
+    private static final class Resolved {
+
+        private final Entry[] entries;
+        private final Subscription[] subscriptions;
+
+        public Resolved(Entry[] entries) {
+            this.entries = entries;
+            this.subscriptions = entries.length == 0 ? EMPTY : merge(entries, NO_ENTRIES);
+        }
+    }
+
+    /**
+     * The subscriptions of one event type, sorted in a set. The array handed
+     * out for dispatching is rebuilt lazily after changes, and is only
+     * accessed under the monitor of the owning index.
+     */
+    private static final class TypeSubscriptions {
+
+        private final TreeSet<Entry> entries = new TreeSet<>();
+        private Entry[] array = NO_ENTRIES; // null once stale
+
+        public void add(Entry entry) {
+            entries.add(entry);
+            array = null;
+        }
+
+        public void remove(Entry entry) {
+            entries.remove(entry);
+            array = null;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        public Entry[] toArray() {
+            if (array == null)
+                array = entries.toArray(NO_ENTRIES);
+            return array;
+        }
+    }
+
+    /**
+     * The routed subscriptions of one property of an event type, indexed
+     * by the routed value. Arrays are copy-on-write and sorted by priority and
+     * registration order, and are only replaced under the monitor of the
+     * owning index.
+     */
+    private static final class Route {
+
+        private final MethodHandle getter;
+        private final Map<Object, Entry[]> byValue = new ConcurrentHashMap<>();
+
+        public Route(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        public Entry[] get(Object event) {
+            Object value;
+            try {
+                value = getter.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+            if (value == null) return NO_ENTRIES;
+            Entry[] entries = byValue.get(value);
+            return entries == null ? NO_ENTRIES : entries;
+        }
+
+        public void add(Object value, Entry entry) {
+            Entry[] current = byValue.getOrDefault(value, NO_ENTRIES);
+            int index = -Arrays.binarySearch(current, entry) - 1;
+            Entry[] updated = new Entry[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            updated[index] = entry;
+            System.arraycopy(current, index, updated, index + 1, current.length - index);
+            byValue.put(value, updated);
+        }
+
+        public void remove(Object value, Entry entry) {
+            Entry[] current = byValue.get(value);
+            int index = current == null ? -1 : Arrays.binarySearch(current, entry);
+            if (index < 0) return;
+            if (current.length == 1) {
+                byValue.remove(value);
+                return;
+            }
+            Entry[] updated = new Entry[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, updated.length - index);
+            byValue.put(value, updated);
+        }
+
+        public boolean isEmpty() {
+            return byValue.isEmpty();
+        }
+    }
+
+    /**
+     * The subscriptions of one listener instance or name, sorted by priority
+     * and registration order. Only accessed under the monitor of the owning
+     * index.
+     */
+    private static final class Group {
+
+        private final TreeSet<Entry> entries = new TreeSet<>();
+        private final Set<Class<?>> resolvedClasses = Collections.newSetFromMap(new WeakHashMap<>());
+
+        public List<Subscription> subscriptions() {
+            List<Subscription> subscriptions = new ArrayList<>(entries.size());
+            for (Entry entry : entries)
+                subscriptions.add(entry.subscription);
+            return subscriptions;
+        }
+    }
+
+    /**
+     * A key that compares an object by identity.
+     */
+    private static final class IdentityKey {
+
+        private final Object value;
+
+        public IdentityKey(Object value) {
+            this.value = value;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).value == value;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private static final class RouteKey {
+
+        private final Class<?> eventType;
+        private final String property;
+        private final Route route;
+        private final Object value;
+
+        public RouteKey(Class<?> eventType, String property, Route route, Object value) {
+            this.eventType = eventType;
+            this.property = property;
+            this.route = route;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Returns the flattened hierarchy of the given class: the class itself, its
+     * superclasses and all the interfaces it implements. The returned array
+     * must not be modified.
+     *
+     * @param type The class
+     * @return The flattened hierarchy
+     */
+    static @NotNull Class<?>[] hierarchy(@NotNull Class<?> type) {
+        return HIERARCHY.get(type);
+    }
+
+    private static void collectHierarchy(Class<?> type, Set<Class<?>> types) {
+        if (type == null || !types.add(type)) return;
+        collectHierarchy(type.getSuperclass(), types);
+        for (Class<?> interfaceType : type.getInterfaces())
+            collectHierarchy(interfaceType, types);
+    }
+
+    /**
+     * The flattened hierarchy of a class: the class itself, its superclasses and
+     * all the interfaces it implements, directly or indirectly.
+     */
+    private static final ClassValue<Class<?>[]> HIERARCHY = new ClassValue<Class<?>[]>() {
+        @Override protected Class<?>[] computeValue(Class<?> type) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collectHierarchy(type, types);
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+}
@@ -0,0 +1,31 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.Registration;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class SubscriptionRegistration implements Registration {
+
+    private final BaseEventBus bus;
+    private final List<Subscription> subscriptions;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public SubscriptionRegistration(BaseEventBus bus, List<Subscription> subscriptions) {
+        this.bus = bus;
+        this.subscriptions = Collections.unmodifiableList(subscriptions);
+    }
+
+    @Override public @NotNull @Unmodifiable List<Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    @Override public void close() {
+        if (closed.compareAndSet(false, true))
+            bus.remove(subscriptions);
+    }
+}
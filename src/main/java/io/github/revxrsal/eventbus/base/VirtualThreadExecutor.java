@@ -0,0 +1,57 @@
+package io.github.revxrsal.eventbus.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An {@link Executor} that runs every task on its own virtual thread.
+ * <p>
+ * Virtual threads are looked up reflectively, so that this library still
+ * runs on JDKs that do not support them (before Java 21).
+ */
+final class VirtualThreadExecutor implements Executor {
+
+    private static final ThreadFactory FACTORY = createFactory();
+
+    private VirtualThreadExecutor() {
+    }
+
+    /**
+     * Tests whether the running JDK supports virtual threads
+     *
+     * @return true if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread, or the
+     * given fallback executor if virtual threads are not supported.
+     *
+     * @param fallback The executor to use if virtual threads are not supported
+     * @return The executor
+     */
+    public static @NotNull Executor orElse(@NotNull Executor fallback) {
+        return isSupported() ? new VirtualThreadExecutor() : fallback;
+    }
+
+    @Override public void execute(@NotNull Runnable task) {
+        FACTORY.newThread(task).start();
+    }
+
+    private static @Nullable ThreadFactory createFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "EventBus Virtual Dispatcher #", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // virtual threads are not supported
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.revxrsal.eventbus.gen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the getter of an event property that is the partition key of the
+ * event. The getter must not accept any parameters.
+ *
+ * @see io.github.revxrsal.eventbus.Partitioned
+ * @see io.github.revxrsal.eventbus.EventBusBuilder#partitioned(int)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PartitionKey {
+}
@@ -0,0 +1,74 @@
+package io.github.revxrsal.eventbus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A class loader that loads the classes of the {@code plugin} test package
+ * itself, like the class loader of a plugin, and delegates all other classes
+ * to the loader of the tests.
+ */
+public final class PluginClassLoader extends ClassLoader {
+
+    private static final String PLUGIN_PACKAGE = "io.github.revxrsal.eventbus.plugin.";
+
+    public PluginClassLoader() {
+        super(PluginClassLoader.class.getClassLoader());
+    }
+
+    @Override protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(PLUGIN_PACKAGE))
+            return super.loadClass(name, resolve);
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> type = findLoadedClass(name);
+            if (type == null) {
+                byte[] bytes = readClass(name);
+                type = defineClass(name, bytes, 0, bytes.length);
+            }
+            if (resolve) resolveClass(type);
+            return type;
+        }
+    }
+
+    /**
+     * Instantiates the plugin class with the given name through its public
+     * no-arg constructor.
+     *
+     * @param name The simple name of the class in the plugin package
+     * @return The new instance
+     */
+    public Object newInstance(String name) {
+        try {
+            return loadClass(PLUGIN_PACKAGE + name).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tests whether a class with the given name has been defined in this
+     * loader, by this loader or by anyone else.
+     *
+     * @param name The binary name of the class
+     * @return True if the class has been defined
+     */
+    public boolean isDefined(String name) {
+        synchronized (getClassLoadingLock(name)) {
+            return findLoadedClass(name) != null;
+        }
+    }
+
+    private byte[] readClass(String name) throws ClassNotFoundException {
+        try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+            if (in == null) throw new ClassNotFoundException(name);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1; )
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
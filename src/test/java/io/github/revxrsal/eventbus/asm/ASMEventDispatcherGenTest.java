@@ -0,0 +1,69 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ASMEventDispatcherGenTest {
+
+    @Test
+    public void dispatchesToListenersAcrossChunks() {
+        assertDispatchesTo(500);
+    }
+
+    @Test
+    public void generatesChunkedDispatchers() {
+        AtomicInteger invocations = new AtomicInteger();
+        Subscription[] subscriptions = new Subscription[500];
+        for (int i = 0; i < subscriptions.length; i++) {
+            EventListener<CountedEvent> listener = event -> invocations.incrementAndGet();
+            subscriptions[i] = new Subscription(listener, null, "listener" + i, CountedEvent.class);
+        }
+        ASMEventDispatcher dispatcher = ASMEventDispatcherGen.generateDispatcher(CountedEvent.class, subscriptions);
+        assertNotNull(dispatcher);
+        dispatcher.dispatch(new CountedEvent(), EventExceptionHandler.PRINT_STACKTRACE);
+        assertEquals(500, invocations.get());
+    }
+
+    @Test
+    public void fallsBackToTheLoopForManyListeners() {
+        assertDispatchesTo(3000);
+        assertDispatchesTo(20000);
+    }
+
+    private static void assertDispatchesTo(int listeners) {
+        EventBus bus = EventBusBuilder.asm().generateDispatchers().build();
+        AtomicInteger invocations = new AtomicInteger();
+        for (int i = 0; i < listeners; i++)
+            bus.register(new CountingListener(invocations));
+        for (int i = 0; i < 3; i++)
+            bus.dispatch(new CountedEvent());
+        assertEquals(3 * listeners, invocations.get());
+    }
+
+    public static final class CountedEvent {
+    }
+
+    public static final class CountingListener {
+
+        private final AtomicInteger invocations;
+
+        public CountingListener(AtomicInteger invocations) {
+            this.invocations = invocations;
+        }
+
+        @SubscribeEvent
+        public void onEvent(CountedEvent event) {
+            invocations.incrementAndGet();
+        }
+    }
+}
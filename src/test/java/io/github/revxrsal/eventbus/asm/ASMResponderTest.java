@@ -0,0 +1,67 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.Registration;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ASMResponderTest {
+
+    @Test
+    public void respondsThroughGeneratedExecutors() throws ExecutionException, InterruptedException {
+        EventBus bus = EventBusBuilder.asm().build();
+        Registration registration = bus.register(new Responders());
+        for (Subscription subscription : registration.getSubscriptions())
+            assertInstanceOf(ASMBoundListener.class, subscription.getListener());
+        List<Object> responses = bus.ask(new Question(), Collectors.toList()).get();
+        assertEquals(Arrays.asList("text", 42L, 7), responses);
+    }
+
+    @Test
+    public void dispatchesRespondersWithGeneratedDispatchers() {
+        EventBus bus = EventBusBuilder.asm().generateDispatchers().build();
+        Responders responders = new Responders();
+        bus.register(responders);
+        bus.dispatch(new Question());
+        assertEquals(3, responders.asked);
+    }
+
+    public static final class Question {
+    }
+
+    public static final class Responders {
+
+        private int asked;
+
+        @SubscribeEvent(priority = 2)
+        public String text(Question question) {
+            asked++;
+            return "text";
+        }
+
+        @SubscribeEvent(priority = 1)
+        public long wide(Question question) {
+            asked++;
+            return 42L;
+        }
+
+        @SubscribeEvent
+        public static int primitive(Question question) {
+            return 7;
+        }
+
+        @SubscribeEvent(priority = -1)
+        public void nothing(Question question) {
+            asked++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.gen.Index;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventGeneratorTest {
+
+    @Test
+    public void generatesEventsOnce() throws Exception {
+        assertEquals("first", EventGenerator.<SingleEvent, SingleEvent>generate(SingleEvent.class, "first").getName());
+        assertEquals("second", EventGenerator.<SingleEvent, SingleEvent>generate(SingleEvent.class, "second").getName());
+    }
+
+    @Test
+    public void generatesEventsConcurrentlyOnce() throws Exception {
+        assertPostsConcurrently(ConcurrentEvent1.class);
+        assertPostsConcurrently(ConcurrentEvent2.class);
+        assertPostsConcurrently(ConcurrentEvent3.class);
+        assertPostsConcurrently(ConcurrentEvent4.class);
+    }
+
+    private static void assertPostsConcurrently(Class<?> eventType) throws Exception {
+        EventBus bus = EventBusBuilder.asm().build();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            List<Future<?>> posts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int value = i;
+                posts.add(executor.submit(() -> {
+                    barrier.await();
+                    return bus.post(eventType, "event" + value).get();
+                }));
+            }
+            for (Future<?> post : posts)
+                post.get(10, TimeUnit.SECONDS); // throws if generating the event failed
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public interface SingleEvent {
+
+        @Index(0) String getName();
+    }
+
+    public interface ConcurrentEvent1 {
+
+        @Index(0) String getName();
+    }
+
+    public interface ConcurrentEvent2 {
+
+        @Index(0) String getName();
+    }
+
+    public interface ConcurrentEvent3 {
+
+        @Index(0) String getName();
+    }
+
+    public interface ConcurrentEvent4 {
+
+        @Index(0) String getName();
+    }
+}
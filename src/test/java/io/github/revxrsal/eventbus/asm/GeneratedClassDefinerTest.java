@@ -0,0 +1,76 @@
+package io.github.revxrsal.eventbus.asm;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.PluginClassLoader;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneratedClassDefinerTest {
+
+    @Test
+    public void definesHiddenExecutorsForTheSameLoader() throws NoSuchMethodException {
+        Method method = TestListener.class.getMethod("onEvent", TestEvent.class);
+        assertTrue(ASMEventListenerGen.generateExecutor(method).getClass().isHidden());
+    }
+
+    @Test
+    public void definesPluginExecutorsInChildLoaders() throws ReflectiveOperationException {
+        PluginClassLoader loader = new PluginClassLoader();
+        Class<?> listenerClass = loader.loadClass("io.github.revxrsal.eventbus.plugin.PluginListener");
+        Class<?> eventClass = loader.loadClass("io.github.revxrsal.eventbus.plugin.PluginEvent");
+        Method method = listenerClass.getMethod("onEvent", eventClass);
+        Class<?> executorClass = ASMEventListenerGen.generateExecutor(method).getClass();
+        assertNotSame(loader, executorClass.getClassLoader());
+        assertSame(loader, executorClass.getClassLoader().getParent());
+    }
+
+    @Test
+    public void definesNoClassesInPluginLoaders() throws ReflectiveOperationException {
+        PluginClassLoader loader = new PluginClassLoader();
+        Object listener = loader.newInstance("PluginListener");
+        EventBus bus = EventBusBuilder.asm().generateDispatchers().build();
+        bus.register(listener);
+        bus.dispatch(loader.newInstance("PluginEvent"));
+        for (int id = 0; id <= 1000; id++)
+            assertFalse(loader.isDefined("io.github.revxrsal.eventbus.plugin.EventBusLookup" + id),
+                    "a lookup class was defined in the plugin loader");
+    }
+
+    @Test
+    public void releasesDiscardedPluginLoaders() throws InterruptedException {
+        EventBus bus = EventBusBuilder.asm().generateDispatchers().build();
+        WeakReference<ClassLoader> loader = registerAndDiscardPlugin(bus);
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(loader.get(), "the plugin loader was not collected");
+    }
+
+    private static WeakReference<ClassLoader> registerAndDiscardPlugin(EventBus bus) {
+        PluginClassLoader loader = new PluginClassLoader();
+        IntSupplier listener = (IntSupplier) loader.newInstance("PluginListener");
+        bus.register(listener);
+        bus.dispatch(loader.newInstance("PluginEvent"));
+        assertEquals(1, listener.getAsInt());
+        bus.unregister(listener);
+        return new WeakReference<>(loader);
+    }
+
+    public static final class TestEvent {
+    }
+
+    public static final class TestListener {
+
+        @SubscribeEvent
+        public void onEvent(TestEvent event) {
+        }
+    }
+}
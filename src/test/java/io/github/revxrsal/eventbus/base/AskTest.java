@@ -0,0 +1,84 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.ResponseListener;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AskTest {
+
+    @Test
+    public void collectsResponsesInPriorityOrder() throws ExecutionException, InterruptedException {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        bus.register(new Responders());
+        bus.registerListener(Question.class, (ResponseListener<Question, String>) question -> "lambda");
+        List<Object> responses = bus.ask(new Question(), Collectors.toList()).get();
+        assertEquals(Arrays.asList("high", "lambda", "low"), responses);
+    }
+
+    @Test
+    public void reducesSequentiallyOnSynchronousBuses() throws ExecutionException, InterruptedException {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        bus.register(new Responders());
+        AtomicInteger combined = new AtomicInteger();
+        assertEquals(Arrays.asList("high", "low"), bus.ask(new Question(), counting(combined)).get());
+        assertEquals(0, combined.get());
+    }
+
+    @Test
+    public void reducesInParallelOnAsynchronousBuses() throws ExecutionException, InterruptedException {
+        EventBus bus = EventBusBuilder.methodHandles().executor(task -> new Thread(task).start()).build();
+        bus.register(new Responders());
+        AtomicInteger combined = new AtomicInteger();
+        assertEquals(Arrays.asList("high", "low"), bus.ask(new Question(), counting(combined)).get());
+        assertTrue(combined.get() > 0, "responses were not reduced in parallel");
+    }
+
+    /**
+     * Creates a collector of responses to a list, which counts the calls of
+     * its combiner.
+     */
+    private static Collector<Object, ?, List<Object>> counting(AtomicInteger combined) {
+        return Collector.of(ArrayList::new, List::add, (left, right) -> {
+            combined.incrementAndGet();
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    public static final class Question {
+    }
+
+    public static final class Responders {
+
+        @SubscribeEvent(priority = 1)
+        public String high(Question question) {
+            return "high";
+        }
+
+        @SubscribeEvent
+        public String nothing(Question question) {
+            return null;
+        }
+
+        @SubscribeEvent(priority = -1)
+        public String low(Question question) {
+            return "low";
+        }
+
+        @SubscribeEvent
+        public void silent(Question question) {
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Registration;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncListenerTest {
+
+    @Test
+    public void runsOnTheAsyncExecutor() throws Exception {
+        ExecutorService asyncExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "async listener"));
+        try {
+            EventBus bus = EventBusBuilder.methodHandles().asyncExecutor(asyncExecutor).build();
+            CompletableFuture<Thread> lambda = new CompletableFuture<>();
+            bus.registerListener(Event.class, event -> lambda.complete(Thread.currentThread()), true);
+            AsyncListeners listeners = new AsyncListeners();
+            bus.register(listeners);
+
+            bus.post(new Event()).join();
+            assertEquals("async listener", lambda.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("async listener", listeners.thread.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void reportsFailuresToTheExceptionHandler() throws Exception {
+        CompletableFuture<Subscription> failedSubscription = new CompletableFuture<>();
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Event event = new Event();
+        IllegalStateException thrown = new IllegalStateException();
+        EventBus bus = EventBusBuilder.methodHandles()
+                .asyncExecutor(task -> new Thread(task).start())
+                .exceptionHandler((subscription, failedEvent, throwable) -> {
+                    assertSame(event, failedEvent);
+                    failure.complete(throwable);
+                    failedSubscription.complete(subscription);
+                })
+                .build();
+        Registration registration = bus.registerListener(Event.class, e -> {
+            throw thrown;
+        }, true);
+
+        assertEquals(1, bus.publish(event).join().getSuccessfulCalls());
+        assertSame(thrown, failure.get(5, TimeUnit.SECONDS));
+        assertSame(registration.getSubscriptions().get(0), failedSubscription.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void unregistersByTheTargetListener() {
+        EventBus bus = EventBusBuilder.methodHandles().asyncExecutor(Runnable::run).build();
+        int[] received = {0};
+        EventListener<Event> listener = event -> received[0]++;
+        bus.registerListener(Event.class, listener, true);
+        bus.post(new Event()).join();
+        bus.unregister(listener);
+        bus.post(new Event()).join();
+        assertEquals(1, received[0]);
+    }
+
+    public static final class Event {
+    }
+
+    public static final class AsyncListeners {
+
+        private final CompletableFuture<Thread> thread = new CompletableFuture<>();
+
+        @SubscribeEvent(async = true)
+        public void onEvent(Event event) {
+            thread.complete(Thread.currentThread());
+        }
+    }
+}
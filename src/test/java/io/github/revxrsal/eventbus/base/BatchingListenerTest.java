@@ -0,0 +1,141 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.Batched;
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.EventExceptionHandler;
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Registration;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchingListenerTest {
+
+    @Test
+    public void flushesWhenTheRegistrationIsClosed() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        WindowListener listener = new WindowListener();
+        Registration registration = bus.register(listener);
+        for (int i = 0; i < 3; i++) bus.dispatch(new TestEvent());
+        assertEquals(0, listener.batches.size());
+        registration.close();
+        assertEquals(1, listener.batches.size());
+        assertEquals(3, listener.batches.get(0).size());
+        bus.dispatch(new TestEvent());
+        assertEquals(1, listener.batches.size());
+    }
+
+    @Test
+    public void flushesWithoutWindowOnUnregister() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        NoWindowListener listener = new NoWindowListener();
+        bus.register(listener);
+        for (int i = 0; i < 12; i++) bus.dispatch(new TestEvent());
+        assertEquals(2, listener.batches.size());
+        bus.unregister(listener);
+        assertEquals(3, listener.batches.size());
+        assertEquals(2, listener.batches.get(2).size());
+    }
+
+    @Test
+    public void flushesWhenTheBusIsClosed() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        NoWindowListener listener = new NoWindowListener();
+        bus.register(listener);
+        bus.dispatch(new TestEvent());
+        bus.close();
+        assertEquals(1, listener.batches.size());
+    }
+
+    @Test
+    public void deliversOneBatchAtATimeInOrder() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Object> received = new CopyOnWriteArrayList<>();
+        EventListener<List<Object>> target = batch -> {
+            assertEquals(1, inFlight.incrementAndGet(), "concurrent delivery");
+            Thread.sleep(1);
+            received.addAll(batch);
+            inFlight.decrementAndGet();
+        };
+        BatchingListener listener = new BatchingListener(target, Object.class, false, 4, 1,
+                ForkJoinPool.commonPool(), EventExceptionHandler.PRINT_STACKTRACE);
+        List<Thread> posters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            Thread poster = new Thread(() -> {
+                for (int i = 0; i < 200; i++) listener.handle(thread * 1000 + i);
+            });
+            poster.start();
+            posters.add(poster);
+        }
+        for (Thread poster : posters) poster.join();
+        listener.close(); // a window flush may still be delivering the last batches
+        for (int i = 0; i < 500 && received.size() < 800; i++) Thread.sleep(10);
+        assertEquals(800, received.size());
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            int previous = -1;
+            for (Object value : received) {
+                int event = (Integer) value;
+                if (event / 1000 != thread) continue;
+                assertTrue(event > previous, "out of order");
+                previous = event;
+            }
+        }
+    }
+
+    @Test
+    public void slowBatchesDoNotStallOtherWindows() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        Executor threadPerBatch = task -> new Thread(task).start();
+        BatchingListener slow = new BatchingListener(batch -> release.await(), Object.class, false, 10, 1,
+                threadPerBatch, EventExceptionHandler.PRINT_STACKTRACE);
+        BatchingListener fast = new BatchingListener(batch -> delivered.countDown(), Object.class, false, 10, 20,
+                threadPerBatch, EventExceptionHandler.PRINT_STACKTRACE);
+        slow.handle("slow");
+        Thread.sleep(10);
+        fast.handle("fast");
+        try {
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    public static final class TestEvent {
+    }
+
+    public static final class WindowListener {
+
+        private final List<List<TestEvent>> batches = new ArrayList<>();
+
+        @Batched(size = 10, window = 60_000)
+        @SubscribeEvent
+        public void onEvents(List<TestEvent> events) {
+            batches.add(events);
+        }
+    }
+
+    public static final class NoWindowListener {
+
+        private final List<List<TestEvent>> batches = new ArrayList<>();
+
+        @Batched(size = 5, window = 0)
+        @SubscribeEvent
+        public void onEvents(List<TestEvent> events) {
+            batches.add(events);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.DispatchQueue;
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedDispatchQueueTest {
+
+    private final Queue<Runnable> drains = new ConcurrentLinkedQueue<>(); // run by the test, one at a time
+    private final List<Integer> received = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void dropNewestCancelsThePostedEvent() {
+        EventBus bus = bus(OverflowPolicy.DROP_NEWEST);
+        CompletableFuture<Void> first = bus.post(1), second = bus.post(2), third = bus.post(3);
+        assertTrue(third.isCancelled());
+        assertEquals(2, queue(bus).getQueueDepth());
+        assertEquals(1, queue(bus).getDroppedCount());
+        runDrains();
+        assertEquals(Arrays.asList(1, 2), received);
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+    }
+
+    @Test
+    public void dropOldestCancelsTheOldestEvent() {
+        EventBus bus = bus(OverflowPolicy.DROP_OLDEST);
+        CompletableFuture<Void> first = bus.post(1);
+        bus.post(2);
+        CompletableFuture<Void> third = bus.post(3);
+        assertTrue(first.isCancelled());
+        assertEquals(2, queue(bus).getQueueDepth());
+        assertEquals(1, queue(bus).getDroppedCount());
+        assertEquals(2, drains.size(), "a drain task was submitted for the replaced event");
+        runDrains();
+        assertEquals(Arrays.asList(2, 3), received);
+        assertTrue(third.isDone() && !third.isCompletedExceptionally());
+    }
+
+    @Test
+    public void callerRunsDispatchesOnThePostingThread() {
+        EventBus bus = bus(OverflowPolicy.CALLER_RUNS);
+        bus.post(1);
+        bus.post(2);
+        CompletableFuture<Void> third = bus.post(3);
+        assertTrue(third.isDone());
+        assertEquals(Arrays.asList(3), received);
+        assertEquals(0, queue(bus).getDroppedCount());
+        runDrains();
+        assertEquals(Arrays.asList(3, 1, 2), received);
+    }
+
+    @Test
+    public void failCompletesTheFutureExceptionally() {
+        EventBus bus = bus(OverflowPolicy.FAIL);
+        bus.post(1);
+        bus.post(2);
+        CompletableFuture<Void> third = bus.post(3);
+        ExecutionException e = assertThrows(ExecutionException.class, third::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, queue(bus).getDroppedCount());
+        runDrains();
+        assertEquals(Arrays.asList(1, 2), received);
+    }
+
+    @Test
+    public void blockWaitsForRoomInTheQueue() throws InterruptedException {
+        EventBus bus = bus(OverflowPolicy.BLOCK);
+        bus.post(1);
+        bus.post(2);
+        Thread publisher = new Thread(() -> bus.post(3));
+        publisher.start();
+        for (int i = 0; i < 500 && publisher.getState() != Thread.State.WAITING; i++) Thread.sleep(10);
+        assertEquals(Thread.State.WAITING, publisher.getState());
+        drains.poll().run();
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(publisher.isAlive());
+        runDrains();
+        assertEquals(Arrays.asList(1, 2, 3), received);
+        assertEquals(0, queue(bus).getDroppedCount());
+    }
+
+    @Test
+    public void removesDispatchesWhoseDrainIsRejected() {
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        EventBus bus = EventBusBuilder.methodHandles().executor(drain -> {
+            if (rejecting.get()) throw new RejectedExecutionException("shut down");
+            drains.add(drain);
+        }).boundedQueue(2, OverflowPolicy.BLOCK).build();
+        bus.registerListener(Integer.class, received::add);
+        CompletableFuture<Void> rejected = bus.post(1);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(0, queue(bus).getQueueDepth());
+        rejecting.set(false);
+        bus.post(2);
+        runDrains();
+        assertEquals(Arrays.asList(2), received);
+    }
+
+    @Test
+    public void failsTheDispatchLeftWithoutADrain() {
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicReference<EventBus> busRef = new AtomicReference<>();
+        AtomicReference<CompletableFuture<Void>> second = new AtomicReference<>();
+        EventBus bus = EventBusBuilder.methodHandles().executor(drain -> {
+            if (submitted.incrementAndGet() == 1) {
+                // another publisher posts before this drain is submitted, and its drain runs the first event
+                second.set(busRef.get().post(2));
+                throw new RejectedExecutionException("shut down");
+            }
+            drain.run();
+        }).boundedQueue(2, OverflowPolicy.BLOCK).build();
+        busRef.set(bus);
+        bus.registerListener(Integer.class, received::add);
+        CompletableFuture<Void> first = bus.post(1);
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertEquals(Arrays.asList(1), received);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> second.get().get());
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(0, queue(bus).getQueueDepth());
+    }
+
+    @Test
+    public void requiresAnAsynchronousExecutor() {
+        assertThrows(IllegalStateException.class,
+                () -> EventBusBuilder.methodHandles().boundedQueue(2, OverflowPolicy.BLOCK).build());
+    }
+
+    private EventBus bus(OverflowPolicy policy) {
+        EventBus bus = EventBusBuilder.methodHandles().executor(drains::add).boundedQueue(2, policy).build();
+        bus.registerListener(Integer.class, received::add);
+        return bus;
+    }
+
+    private static DispatchQueue queue(EventBus bus) {
+        return (DispatchQueue) bus.getExecutor();
+    }
+
+    private void runDrains() {
+        Runnable drain;
+        while ((drain = drains.poll()) != null) drain.run();
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.PluginClassLoader;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LambdaEventBusTest {
+
+    @Test
+    public void invokesListenersOfTheSameLoader() {
+        EventBus bus = EventBusBuilder.lambdaMetafactory().build();
+        CountingListener listener = new CountingListener();
+        bus.register(listener);
+        bus.dispatch(new TestEvent());
+        assertEquals(1, listener.received);
+        assertEquals(1, CountingListener.receivedStatic);
+    }
+
+    @Test
+    public void invokesListenersOfPluginLoaders() {
+        PluginClassLoader loader = new PluginClassLoader();
+        EventBus bus = EventBusBuilder.lambdaMetafactory().build();
+        IntSupplier listener = (IntSupplier) loader.newInstance("PluginListener");
+        bus.register(listener);
+        bus.dispatch(loader.newInstance("PluginEvent"));
+        bus.dispatch(loader.newInstance("PluginEvent"));
+        assertEquals(2, listener.getAsInt());
+    }
+
+    public static final class TestEvent {
+    }
+
+    public static final class CountingListener {
+
+        private static int receivedStatic;
+        private int received;
+
+        @SubscribeEvent
+        public void onEvent(TestEvent event) {
+            received++;
+        }
+
+        @SubscribeEvent
+        private static void onEventStatic(TestEvent event) {
+            receivedStatic++;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.Cancellable;
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.Registration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MethodHandlesEventBusTest {
+
+    @Test
+    public void combinedDispatchInvokesListenersInOrder() {
+        List<String> invoked = new ArrayList<>();
+        EventBus bus = EventBusBuilder.methodHandles().generateDispatchers()
+                .exceptionHandler((subscription, event, throwable) -> invoked.add("failed"))
+                .build();
+        bus.registerListener(TestEvent.class, event -> invoked.add("low"), -1, false);
+        bus.registerListener(TestEvent.class, event -> invoked.add("high"), 1, false);
+        bus.registerListener(TestEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+        bus.registerListener(TestEvent.class, event -> !event.cancel, event -> invoked.add("filtered"));
+
+        bus.dispatch(new TestEvent(false));
+        assertEquals(Arrays.asList("high", "failed", "filtered", "low"), invoked);
+    }
+
+    @Test
+    public void combinedDispatchSkipsListenersOfCancelledEvents() {
+        List<String> invoked = new ArrayList<>();
+        EventBus bus = EventBusBuilder.methodHandles().generateDispatchers().build();
+        bus.registerListener(TestEvent.class, event -> event.setCancelled(event.cancel), 1, false);
+        bus.registerListener(TestEvent.class, event -> invoked.add("after"));
+
+        bus.dispatch(new TestEvent(true));
+        bus.dispatch(new TestEvent(false));
+        assertEquals(Arrays.asList("after"), invoked);
+    }
+
+    @Test
+    public void combinedDispatchIsRebuiltOnUnregister() {
+        List<String> invoked = new ArrayList<>();
+        EventBus bus = EventBusBuilder.methodHandles().generateDispatchers().build();
+        Registration first = bus.registerListener(TestEvent.class, event -> invoked.add("first"));
+        bus.registerListener(TestEvent.class, event -> invoked.add("second"));
+
+        bus.dispatch(new TestEvent(false));
+        first.close();
+        bus.dispatch(new TestEvent(false));
+        assertEquals(Arrays.asList("first", "second", "second"), invoked);
+    }
+
+    public static final class TestEvent implements Cancellable {
+
+        private final boolean cancel;
+        private boolean cancelled;
+
+        public TestEvent(boolean cancel) {
+            this.cancel = cancel;
+        }
+
+        @Override public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.PostResult;
+import io.github.revxrsal.eventbus.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFanOutTest {
+
+    @Test
+    public void aggregatesFailuresOfAllListeners() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Set<Throwable> handled = ConcurrentHashMap.newKeySet();
+            EventBus bus = EventBusBuilder.methodHandles()
+                    .parallelFanOut(pool)
+                    .exceptionHandler((subscription, event, throwable) -> handled.add(throwable))
+                    .build();
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            Set<IllegalStateException> thrown = new HashSet<>();
+            for (int i = 0; i < 16; i++) {
+                if (i % 4 == 0) {
+                    IllegalStateException failure = new IllegalStateException("listener " + i);
+                    thrown.add(failure);
+                    bus.registerListener(Event.class, event -> {
+                        threads.add(Thread.currentThread());
+                        throw failure;
+                    });
+                } else {
+                    bus.registerListener(Event.class, event -> threads.add(Thread.currentThread()));
+                }
+            }
+
+            PostResult<Event> result = bus.publish(new Event()).join();
+            assertEquals(12, result.getSuccessfulCalls());
+            assertEquals(4, result.getFailedCalls());
+            assertEquals(12, result.getExecutionTimes().size());
+            assertEquals(thrown, handled);
+            assertTrue(threads.stream().allMatch(thread -> Thread.currentThread() != thread));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void countsEverySuccessfulListener() {
+        EventBus bus = EventBusBuilder.methodHandles().parallelFanOut().build();
+        for (int i = 0; i < 100; i++) {
+            bus.registerListener(Event.class, event -> {});
+        }
+        PostResult<Event> result = bus.publish(new Event()).join();
+        assertEquals(100, result.getSuccessfulCalls());
+        assertEquals(0, result.getFailedCalls());
+        Set<Subscription> timed = result.getExecutionTimes().keySet();
+        assertEquals(100, timed.size());
+    }
+
+    public static final class Event {
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.Partitioned;
+import io.github.revxrsal.eventbus.gen.PartitionKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedExecutorTest {
+
+    @Test
+    public void dispatchesEqualKeysInOrderOnOneThread() {
+        EventBus bus = EventBusBuilder.methodHandles().partitioned(4, event -> ((KeyedEvent) event).key).build();
+        Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+        Map<String, Set<Thread>> threads = new ConcurrentHashMap<>();
+        bus.registerListener(KeyedEvent.class, event -> {
+            sequences.computeIfAbsent(event.key, k -> new CopyOnWriteArrayList<>()).add(event.sequence);
+            threads.computeIfAbsent(event.key, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread());
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int sequence = 0; sequence < 200; sequence++)
+            for (int key = 0; key < 8; key++)
+                futures.add(bus.post(new KeyedEvent("key" + key, sequence)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        bus.close();
+        assertEquals(8, sequences.size());
+        sequences.forEach((key, received) -> {
+            assertEquals(200, received.size(), key);
+            for (int i = 0; i < received.size(); i++)
+                assertEquals(i, received.get(i), "out of order for " + key);
+            assertEquals(1, threads.get(key).size(), "dispatched on more than one lane: " + key);
+        });
+    }
+
+    @Test
+    public void assignsLanesByKey() {
+        PartitionedExecutor executor = PartitionedExecutor.create(4, null, -1, null);
+        try {
+            int lane = executor.laneOf(task(new InterfaceKeyed("a")));
+            assertEquals(lane, executor.laneOf(task(new InterfaceKeyed(new String("a")))));
+            assertEquals(lane, executor.laneOf(task(new GetterKeyed("a"))));
+
+            Set<Integer> unkeyed = new HashSet<>();
+            for (int i = 0; i < 4; i++) unkeyed.add(executor.laneOf(task(new InterfaceKeyed(null))));
+            assertEquals(4, unkeyed.size(), "events without a key are not spread across the lanes");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failsTheFutureWhenTheKeyFunctionThrows() throws InterruptedException {
+        EventBus bus = EventBusBuilder.methodHandles().partitioned(2, event -> {
+            throw new IllegalArgumentException("no key");
+        }).build();
+        try {
+            CompletableFuture<Void> future = assertDoesNotThrow(() -> bus.post(new Object()));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            ExecutionException published = assertThrows(ExecutionException.class,
+                    () -> bus.publish(new Object()).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, published.getCause());
+        } finally {
+            bus.close();
+        }
+    }
+
+    @Test
+    public void failsTheFutureWhenTheKeyGetterThrows() {
+        EventBus bus = EventBusBuilder.methodHandles().partitioned(2).build();
+        try {
+            CompletableFuture<Void> future = assertDoesNotThrow(() -> bus.post(new GetterKeyed(null)));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        } finally {
+            bus.close();
+        }
+    }
+
+    private static DispatchTask<Void> task(Object event) {
+        return new DispatchTask<>(new CompletableFuture<>(), () -> null, event);
+    }
+
+    public static final class KeyedEvent {
+
+        private final String key;
+        private final int sequence;
+
+        public KeyedEvent(String key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+
+    public static final class InterfaceKeyed implements Partitioned {
+
+        private final Object key;
+
+        public InterfaceKeyed(Object key) {
+            this.key = key;
+        }
+
+        @Override public Object getPartitionKey() {
+            return key;
+        }
+    }
+
+    public static final class GetterKeyed {
+
+        private final String key;
+
+        public GetterKeyed(String key) {
+            this.key = key;
+        }
+
+        @PartitionKey
+        public String getKey() {
+            if (key == null) throw new IllegalStateException("no key");
+            return key;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import io.github.revxrsal.eventbus.Subscription;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PostAllTest {
+
+    @Test
+    public void postsEachEventToAllListenersBeforeTheNext() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        List<String> invoked = new ArrayList<>();
+        register(bus, invoked);
+        bus.postAll(Arrays.asList(new First("a"), new First("b"), new Second("c"))).join();
+        assertEquals(Arrays.asList("high a", "low a", "high b", "low b", "second c"), invoked);
+    }
+
+    @Test
+    public void postsEachRunToOneListenerBeforeTheNext() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        List<String> invoked = new ArrayList<>();
+        register(bus, invoked);
+        bus.postAll(Arrays.asList(new First("a"), new First("b"), new Second("c"), new First("d")), true).join();
+        assertEquals(Arrays.asList("high a", "high b", "low a", "low b", "second c", "high d", "low d"), invoked);
+
+        invoked.clear();
+        bus.postAll(First.class, new First[]{new First("e"), new First("f")}, true).join();
+        assertEquals(Arrays.asList("high e", "high f", "low e", "low f"), invoked);
+    }
+
+    @Test
+    public void resolvesSubscriptionsOncePerRun() {
+        CountingEventBus bus = new CountingEventBus();
+        List<String> invoked = new ArrayList<>();
+        register(bus, invoked);
+        bus.postAll(Arrays.asList(new First("a"), new First("b"), new First("c"), new Second("d"), new First("e"))).join();
+        assertEquals(3, bus.lookups.get());
+        assertEquals(9, invoked.size());
+
+        bus.lookups.set(0);
+        bus.postAll(Collections.emptyList()).join();
+        assertEquals(0, bus.lookups.get());
+    }
+
+    private static void register(EventBus bus, List<String> invoked) {
+        bus.registerListener(First.class, event -> invoked.add("low " + event.name), -1, false);
+        bus.registerListener(First.class, event -> invoked.add("high " + event.name), 1, false);
+        bus.registerListener(Second.class, event -> invoked.add("second " + event.name));
+    }
+
+    /**
+     * An event bus that counts the lookups of the subscriptions of event classes
+     */
+    private static final class CountingEventBus extends MethodHandlesEventBus {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        public CountingEventBus() {
+            super((subscription, event, throwable) -> {}, Runnable::run,
+                    Collections.singletonList(SubscribeEvent.class), true, false, null);
+        }
+
+        @Override protected @NotNull Subscription[] getSubscriptions(@NotNull Class<?> eventClass) {
+            lookups.incrementAndGet();
+            return super.getSubscriptions(eventClass);
+        }
+    }
+
+    public static final class First {
+
+        private final String name;
+
+        public First(String name) {
+            this.name = name;
+        }
+    }
+
+    public static final class Second {
+
+        private final String name;
+
+        public Second(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferExecutorTest {
+
+    @Test
+    public void runsAllTasksOfConcurrentProducers() throws InterruptedException {
+        RingBufferExecutor executor = new RingBufferExecutor(8, 3, WaitStrategy.YIELD);
+        int producers = 4, tasks = 20_000;
+        CountDownLatch done = new CountDownLatch(producers * tasks);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < tasks; j++) executor.execute(done::countDown);
+            });
+            producer.start();
+            threads.add(producer);
+        }
+        for (Thread producer : threads) producer.join();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void drainsPublishedTasksOnShutdown() throws InterruptedException {
+        RingBufferExecutor executor = new RingBufferExecutor(1024, 2, WaitStrategy.BUSY_SPIN);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 1000; i++)
+            executor.execute(ran::incrementAndGet);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1000, ran.get());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(ran::incrementAndGet));
+    }
+
+    @Test
+    public void runsTasksPublishedDuringShutdown() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            RingBufferExecutor executor = new RingBufferExecutor(64, 1, WaitStrategy.BUSY_SPIN);
+            AtomicInteger submitted = new AtomicInteger(), ran = new AtomicInteger();
+            Thread producer = new Thread(() -> {
+                try {
+                    while (true) {
+                        executor.execute(ran::incrementAndGet);
+                        submitted.incrementAndGet();
+                    }
+                } catch (RejectedExecutionException ignored) {
+                }
+            });
+            producer.start();
+            Thread.yield();
+            executor.shutdown();
+            producer.join();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(submitted.get(), ran.get(), "round " + round);
+        }
+    }
+
+    @Test
+    public void closingTheBusStopsTheConsumers() throws InterruptedException, ExecutionException {
+        EventBus bus = EventBusBuilder.methodHandles().ringBuffer(64, 2, WaitStrategy.PARK).build();
+        RingBufferExecutor executor = (RingBufferExecutor) bus.getExecutor();
+        bus.post(new Object()).get();
+        bus.close();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> rejected = bus.post(new Object());
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.Registration;
+import io.github.revxrsal.eventbus.gen.Index;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutedListenerTest {
+
+    @Test
+    public void invokesRoutedListenersInPriorityOrder() {
+        for (EventBusBuilder builder : Arrays.asList(EventBusBuilder.methodHandles(), EventBusBuilder.asm(),
+                EventBusBuilder.methodHandles().generateDispatchers(), EventBusBuilder.asm().generateDispatchers())) {
+            EventBus bus = builder.build();
+            List<String> invoked = new ArrayList<>();
+            bus.registerListener(Launch.class, event -> invoked.add("low"), -1, false);
+            bus.registerListener(Launch.class, "launcher", "Hunter", event -> invoked.add("routed"));
+            bus.registerListener(Launch.class, event -> invoked.add("after"));
+            bus.registerListener(Launch.class, "launcher", "Hunter", event -> invoked.add("routed high"), 2);
+            bus.registerListener(Launch.class, event -> invoked.add("high"), 1, false);
+            bus.dispatch(new Launch("Hunter", 1));
+            assertEquals(Arrays.asList("routed high", "high", "routed", "after", "low"), invoked);
+
+            invoked.clear();
+            bus.dispatch(new Launch("Archer", 1));
+            assertEquals(Arrays.asList("high", "after", "low"), invoked);
+        }
+    }
+
+    @Test
+    public void invokesRoutedListenersInListenerMajorOrder() {
+        EventBus bus = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        List<String> invoked = new ArrayList<>();
+        bus.registerListener(Launch.class, event -> invoked.add("low " + event.getLauncher()), -1, false);
+        bus.registerListener(Launch.class, "launcher", "Hunter", event -> invoked.add("routed " + event.getLauncher()));
+        bus.registerListener(Launch.class, event -> invoked.add("high " + event.getLauncher()), 1, false);
+        Launch[] events = {new Launch("Hunter", 1), new Launch("Archer", 2), new Launch("Hunter", 3)};
+
+        bus.postAll(Launch.class, events, true).join();
+        assertEquals(Arrays.asList("high Hunter", "high Archer", "high Hunter", "routed Hunter", "routed Hunter",
+                "low Hunter", "low Archer", "low Hunter"), invoked);
+
+        invoked.clear();
+        bus.postAll(Launch.class, events).join();
+        assertEquals(Arrays.asList("high Hunter", "routed Hunter", "low Hunter", "high Archer", "low Archer",
+                "high Hunter", "routed Hunter", "low Hunter"), invoked);
+    }
+
+    @Test
+    public void removesEmptyRoutesOnUnregister() {
+        BaseEventBus bus = (BaseEventBus) EventBusBuilder.methodHandles().build();
+        List<String> invoked = new ArrayList<>();
+        Registration hunter = bus.registerListener(Launch.class, "launcher", "Hunter", event -> invoked.add("hunter"));
+        Registration archer = bus.registerListener(Launch.class, "launcher", "Archer", event -> invoked.add("archer"));
+        Registration id = bus.registerListener(Launch.class, "id", 1L, event -> invoked.add("id"));
+        assertTrue(bus.hasRoutes(Launch.class));
+
+        hunter.close();
+        id.close();
+        bus.dispatch(new Launch("Archer", 1));
+        assertEquals(Arrays.asList("archer"), invoked);
+        assertTrue(bus.hasRoutes(Launch.class));
+
+        archer.close();
+        assertFalse(bus.hasRoutes(Launch.class));
+        assertFalse(bus.index.hasRoutes(SubLaunch.class));
+    }
+
+    @Test
+    public void convertsIntegralValuesToThePropertyType() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        List<String> invoked = new ArrayList<>();
+        bus.registerListener(Launch.class, "id", 5, event -> invoked.add("int"));
+        bus.registerListener(Launch.class, "id", (short) 5, event -> invoked.add("short"));
+        bus.registerListener(Launch.class, "arrows", 3L, event -> invoked.add("long"));
+        bus.registerListener(Launch.class, "power", 2, event -> invoked.add("double"));
+        bus.dispatch(new Launch("Hunter", 5));
+        assertEquals(Arrays.asList("int", "short", "long", "double"), invoked);
+    }
+
+    @Test
+    public void rejectsValuesOfOtherTypes() {
+        EventBus bus = EventBusBuilder.methodHandles().build();
+        assertThrows(IllegalArgumentException.class, () -> bus.registerListener(Launch.class, "id", "5", event -> {}));
+        assertThrows(IllegalArgumentException.class, () -> bus.registerListener(Launch.class, "arrows", Long.MAX_VALUE, event -> {}));
+        assertThrows(IllegalArgumentException.class, () -> bus.registerListener(Launch.class, "power", 2.5f, event -> {}));
+        assertThrows(IllegalArgumentException.class, () -> bus.registerListener(Launch.class, "launcher", 5, event -> {}));
+        assertThrows(IllegalArgumentException.class, () -> bus.registerListener(Launch.class, "missing", 5, event -> {}));
+    }
+
+    public static class Launch {
+
+        private final String launcher;
+        private final long id;
+
+        public Launch(String launcher, long id) {
+            this.launcher = launcher;
+            this.id = id;
+        }
+
+        @Index(0) public String getLauncher() {
+            return launcher;
+        }
+
+        @Index(1) public long getId() {
+            return id;
+        }
+
+        @Index(2) public int getArrows() {
+            return 3;
+        }
+
+        @Index(3) public double getPower() {
+            return 2;
+        }
+    }
+
+    public static final class SubLaunch extends Launch {
+
+        public SubLaunch(String launcher, long id) {
+            super(launcher, id);
+        }
+    }
+}
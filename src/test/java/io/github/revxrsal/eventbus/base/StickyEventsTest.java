@@ -0,0 +1,102 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import io.github.revxrsal.eventbus.PluginClassLoader;
+import io.github.revxrsal.eventbus.SubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StickyEventsTest {
+
+    @Test
+    public void looksUpExactTypesOnly() {
+        EventBus bus = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        Event event = new Event();
+        SubEvent subEvent = new SubEvent();
+        bus.postSticky(subEvent);
+        assertNull(bus.getStickyEvent(Event.class));
+        assertNull(bus.removeStickyEvent(Event.class));
+        assertSame(subEvent, bus.getStickyEvent(SubEvent.class));
+
+        bus.postSticky(event);
+        assertSame(event, bus.removeStickyEvent(Event.class));
+        assertSame(subEvent, bus.getStickyEvent(SubEvent.class));
+    }
+
+    @Test
+    public void deliversToLaterListeners() {
+        EventBus bus = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        bus.postSticky(new SubEvent());
+        bus.postSticky(new Event());
+        bus.removeStickyEvent(Event.class);
+        CountingListener listener = new CountingListener();
+        bus.register(listener);
+        assertEquals(1, listener.received);
+    }
+
+    @Test
+    public void deliversSubtypesOnlyWithHierarchicalInvocation() {
+        EventBus hierarchical = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        hierarchical.postSticky(new SubEvent());
+        CountingListener listener = new CountingListener();
+        hierarchical.register(listener);
+        assertEquals(1, listener.received);
+
+        EventBus exact = EventBusBuilder.methodHandles().executor(Runnable::run).disableHierarchicalInvocation().build();
+        exact.postSticky(new SubEvent());
+        CountingListener exactListener = new CountingListener();
+        exact.register(exactListener);
+        assertEquals(0, exactListener.received);
+    }
+
+    @Test
+    public void deliversEachEventOnceToEveryReceiver() {
+        EventBus bus = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        bus.postSticky(new Event());
+        bus.postSticky(new SubEvent());
+        CountingListener first = new CountingListener(), second = new CountingListener();
+        bus.register(first);
+        bus.register(second);
+        assertEquals(2, first.received);
+        assertEquals(2, second.received);
+    }
+
+    @Test
+    public void releasesRemovedStickyEvents() throws InterruptedException {
+        EventBus bus = EventBusBuilder.methodHandles().executor(Runnable::run).build();
+        WeakReference<ClassLoader> loader = postAndRemovePluginEvent(bus);
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(loader.get(), "the plugin loader was not collected");
+    }
+
+    private static WeakReference<ClassLoader> postAndRemovePluginEvent(EventBus bus) {
+        PluginClassLoader loader = new PluginClassLoader();
+        Object event = loader.newInstance("PluginEvent");
+        bus.postSticky(event);
+        assertSame(event, bus.removeStickyEvent(event.getClass()));
+        return new WeakReference<>(loader);
+    }
+
+    public static class Event {
+    }
+
+    public static final class SubEvent extends Event {
+    }
+
+    public static final class CountingListener {
+
+        private int received;
+
+        @SubscribeEvent
+        public void onEvent(Event event) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventListener;
+import io.github.revxrsal.eventbus.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubscriptionIndexTest {
+
+    @Test
+    public void resolvedArraysNeverOutliveMutations() throws InterruptedException {
+        SubscriptionIndex index = new SubscriptionIndex(true);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) index.get(SubEvent.class);
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                List<Subscription> subscriptions = Collections.singletonList(subscription(Event.class, 0));
+                index.add(subscriptions);
+                assertTrue(Arrays.asList(index.get(SubEvent.class)).contains(subscriptions.get(0)), "added in round " + i);
+                index.remove(subscriptions);
+                assertEquals(0, index.get(SubEvent.class).length, "removed in round " + i);
+            }
+        } finally {
+            running.set(false);
+            for (Thread reader : readers) reader.join();
+        }
+    }
+
+    @Test
+    public void keepsOrderAcrossRemovals() {
+        SubscriptionIndex index = new SubscriptionIndex(true);
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+            subscriptions.add(subscription(SubEvent.class, i % 2));
+        index.add(subscriptions);
+        assertArrayEquals(new Subscription[]{subscriptions.get(1), subscriptions.get(3), subscriptions.get(5),
+                subscriptions.get(0), subscriptions.get(2), subscriptions.get(4)}, index.get(SubEvent.class));
+
+        index.remove(Arrays.asList(subscriptions.get(3), subscriptions.get(2)));
+        index.remove(Collections.singletonList(subscriptions.get(3)));
+        assertArrayEquals(new Subscription[]{subscriptions.get(1), subscriptions.get(5),
+                subscriptions.get(0), subscriptions.get(4)}, index.get(SubEvent.class));
+        assertEquals(0, index.get(Event.class).length);
+    }
+
+    @Test
+    public void mergesHierarchyInRegistrationOrder() {
+        SubscriptionIndex index = new SubscriptionIndex(true);
+        Subscription subEvent = subscription(SubEvent.class, 0);
+        Subscription event = subscription(Event.class, 0);
+        Subscription object = subscription(Object.class, 0);
+        Subscription urgent = subscription(Object.class, 1);
+        index.add(Collections.singletonList(subEvent));
+        index.add(Collections.singletonList(event));
+        index.add(Arrays.asList(object, urgent));
+        assertArrayEquals(new Subscription[]{urgent, subEvent, event, object}, index.get(SubEvent.class));
+
+        index.remove(Collections.singletonList(subEvent));
+        index.add(Collections.singletonList(subEvent));
+        assertArrayEquals(new Subscription[]{urgent, event, object, subEvent}, index.get(SubEvent.class));
+    }
+
+    @Test
+    public void resolvesTargetedSubscriptionsPerEventClass() {
+        SubscriptionIndex index = new SubscriptionIndex(true);
+        Object instance = new Object();
+        Subscription first = subscription(instance, "first", Event.class, 0);
+        Subscription second = subscription(instance, "second", SubEvent.class, 1);
+        Subscription other = subscription(new Object(), "first", Event.class, 0);
+        index.add(Arrays.asList(first, second, other));
+
+        assertArrayEquals(new Subscription[]{second, first}, index.getByInstance(instance, SubEvent.class));
+        assertArrayEquals(new Subscription[]{first}, index.getByInstance(instance, Event.class));
+        assertSame(index.getByInstance(instance, SubEvent.class), index.getByInstance(instance, SubEvent.class));
+        assertArrayEquals(new Subscription[]{first, other}, index.getByName("first", SubEvent.class));
+
+        Subscription third = subscription(instance, "first", Event.class, 0);
+        index.add(Collections.singletonList(third));
+        assertArrayEquals(new Subscription[]{second, first, third}, index.getByInstance(instance, SubEvent.class));
+        assertArrayEquals(new Subscription[]{first, other, third}, index.getByName("first", SubEvent.class));
+
+        index.removeInstance(instance);
+        assertEquals(0, index.getByInstance(instance, SubEvent.class).length);
+        assertArrayEquals(new Subscription[]{other}, index.getByName("first", SubEvent.class));
+        assertArrayEquals(new Subscription[]{other}, index.get(SubEvent.class));
+    }
+
+    @Test
+    public void exposesAReadOnlyViewOfAllSubscriptions() {
+        SubscriptionIndex index = new SubscriptionIndex(true);
+        Subscription first = subscription(Object.class, 0), second = subscription(String.class, 0);
+        index.add(Arrays.asList(first, second));
+        Set<Subscription> view = index.view();
+        assertEquals(2, view.size());
+        assertTrue(view.contains(first));
+        Iterator<Subscription> snapshot = view.iterator();
+        index.remove(Collections.singletonList(first));
+        assertFalse(view.contains(first));
+        assertEquals(1, view.size());
+        int iterated = 0;
+        for (; snapshot.hasNext(); snapshot.next()) iterated++;
+        assertEquals(2, iterated);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(first));
+        assertThrows(UnsupportedOperationException.class, () -> view.removeIf(s -> true));
+    }
+
+    private static Subscription subscription(Class<?> eventType, int priority) {
+        return subscription(null, "listener", eventType, priority);
+    }
+
+    private static Subscription subscription(Object instance, String name, Class<?> eventType, int priority) {
+        EventListener<Object> listener = event -> {
+        };
+        return new Subscription(listener, instance, name, eventType, priority);
+    }
+
+    public static class Event {
+    }
+
+    public static class SubEvent extends Event {
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.revxrsal.eventbus.base;
+
+import io.github.revxrsal.eventbus.EventBus;
+import io.github.revxrsal.eventbus.EventBusBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadExecutorTest {
+
+    private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    @Test
+    public void looksUpVirtualThreadsWhereSupported() {
+        assertEquals(VIRTUAL_THREADS, VirtualThreadExecutor.isSupported());
+    }
+
+    @Test
+    public void runsTasksOnVirtualThreadsOrTheFallback() throws Exception {
+        Executor fallback = Runnable::run;
+        Executor executor = VirtualThreadExecutor.orElse(fallback);
+        if (!VIRTUAL_THREADS) {
+            assertSame(fallback, executor);
+            return;
+        }
+        assertNotSame(fallback, executor);
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+        Thread virtual = thread.get(5, TimeUnit.SECONDS);
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(virtual));
+        assertTrue(virtual.getName().startsWith("EventBus Virtual Dispatcher #"));
+    }
+
+    @Test
+    public void dispatchesWithTheExecutorWithoutVirtualThreads() throws Exception {
+        Thread caller = Thread.currentThread();
+        EventBus bus = EventBusBuilder.methodHandles()
+                .executor(task -> new Thread(task, "fallback").start())
+                .virtualThreads()
+                .build();
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        bus.registerListener(Event.class, event -> thread.complete(Thread.currentThread()));
+        bus.post(new Event()).get(5, TimeUnit.SECONDS);
+        Thread dispatcher = thread.get(5, TimeUnit.SECONDS);
+        assertNotSame(caller, dispatcher);
+        assertEquals(VIRTUAL_THREADS, !dispatcher.getName().equals("fallback"));
+    }
+
+    public static final class Event {
+    }
+}
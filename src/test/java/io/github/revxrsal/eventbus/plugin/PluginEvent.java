@@ -0,0 +1,7 @@
+package io.github.revxrsal.eventbus.plugin;
+
+/**
+ * An event class of a plugin.
+ */
+public final class PluginEvent {
+}
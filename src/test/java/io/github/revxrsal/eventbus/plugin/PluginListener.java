@@ -0,0 +1,22 @@
+package io.github.revxrsal.eventbus.plugin;
+
+import io.github.revxrsal.eventbus.SubscribeEvent;
+
+import java.util.function.IntSupplier;
+
+/**
+ * A listener class of a plugin, which counts the events it receives.
+ */
+public final class PluginListener implements IntSupplier {
+
+    private int received;
+
+    @SubscribeEvent
+    public void onEvent(PluginEvent event) {
+        received++;
+    }
+
+    @Override public int getAsInt() {
+        return received;
+    }
+}